@@ -1,6 +1,10 @@
 package avltree;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+
+import forkjoin.ForkJoinScheduler;
+import forkjoin.Task;
 
 /**
  * 二分搜索树有一个比较严重的问题，就是如果将一组排序好的数据放入二分搜索树中，二分搜索树会退化成一个链表。平衡二叉树就是解决这个问题的。
@@ -30,6 +34,7 @@ public class AVLTree<K extends Comparable<K>, V> {
         public V value;
         public Node left, right;
         public int height; // 该节点的高度
+        public int size; // 以该节点为根的子树中的节点数
 
         public Node(K key, V value) {
             this.key = key;
@@ -37,6 +42,7 @@ public class AVLTree<K extends Comparable<K>, V> {
             left = null;
             right = null;
             height = 1;
+            size = 1;
         }
     }
 
@@ -52,6 +58,103 @@ public class AVLTree<K extends Comparable<K>, V> {
         return size;
     }
 
+    // 用从小到大排好序、没有重复的键创建一棵 AVL 树，O(n)。values 为 null 时所有的值都是 null。
+    // 每次取中间的键作为根，左右两半的元素个数最多差一，高度也最多差一，所以不需要任何旋转就是平衡的。
+    public static <K extends Comparable<K>, V> AVLTree<K, V> fromSorted(K[] keys, V[] values) {
+        checkSorted(keys, values);
+
+        AVLTree<K, V> tree = new AVLTree<>();
+        tree.root = tree.build(keys, values, 0, keys.length - 1);
+        tree.size = keys.length;
+        return tree;
+    }
+
+    // 用迭代器按从小到大的顺序给出的键和对应的值创建一棵 AVL 树，O(n)。事先不知道元素个数，所以先放进列表。
+    // 两个迭代器给出的元素个数必须相同。
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <K extends Comparable<K>, V> AVLTree<K, V> fromSorted(Iterator<K> keys, Iterator<V> values) {
+        ArrayList<K> keyList = new ArrayList<>();
+        ArrayList<V> valueList = new ArrayList<>();
+        while (keys.hasNext() && values.hasNext()) {
+            keyList.add(keys.next());
+            valueList.add(values.next());
+        }
+        if (keys.hasNext() || values.hasNext()) {
+            throw new IllegalArgumentException("Keys and values must have the same length.");
+        }
+        return fromSorted((K[]) keyList.toArray(new Comparable[0]), (V[]) valueList.toArray());
+    }
+
+    // 并行地创建，左右两半在不同的线程上创建
+    public static <K extends Comparable<K>, V> AVLTree<K, V> fromSorted(K[] keys, V[] values,
+            ForkJoinScheduler scheduler) {
+        checkSorted(keys, values);
+
+        AVLTree<K, V> tree = new AVLTree<>();
+        tree.root = scheduler.invoke(tree.new BuildTask(keys, values, 0, keys.length - 1));
+        tree.size = keys.length;
+        return tree;
+    }
+
+    private static <K extends Comparable<K>, V> void checkSorted(K[] keys, V[] values) {
+        if (values != null && values.length != keys.length) {
+            throw new IllegalArgumentException("Keys and values must have the same length.");
+        }
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IllegalArgumentException("Keys must be sorted and distinct.");
+            }
+        }
+    }
+
+    // 用 keys[l...r] 创建一棵 AVL 树，返回根节点
+    private Node build(K[] keys, V[] values, int l, int r) {
+        if (l > r) {
+            return null;
+        }
+
+        int mid = l + (r - l) / 2;
+        Node node = new Node(keys[mid], values == null ? null : values[mid]);
+        node.left = build(keys, values, l, mid - 1);
+        node.right = build(keys, values, mid + 1, r);
+        node.height = 1 + Math.max(getHeight(node.left), getHeight(node.right));
+        node.size = r - l + 1;
+        return node;
+    }
+
+    // 区间元素个数小于这个值就不再 fork 子任务
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private class BuildTask extends Task<Node> {
+        private K[] keys;
+        private V[] values;
+        private int l, r;
+
+        public BuildTask(K[] keys, V[] values, int l, int r) {
+            this.keys = keys;
+            this.values = values;
+            this.l = l;
+            this.r = r;
+        }
+
+        @Override
+        protected Node compute() {
+            if (r - l + 1 <= PARALLEL_THRESHOLD) {
+                return build(keys, values, l, r);
+            }
+
+            int mid = l + (r - l) / 2;
+            BuildTask left = new BuildTask(keys, values, l, mid - 1);
+            left.fork();
+            Node node = new Node(keys[mid], values == null ? null : values[mid]);
+            node.right = new BuildTask(keys, values, mid + 1, r).compute();
+            node.left = left.join();
+            node.height = 1 + Math.max(getHeight(node.left), getHeight(node.right));
+            node.size = r - l + 1;
+            return node;
+        }
+    }
+
     public boolean isEmpty() {
         return size == 0;
     }
@@ -68,6 +171,13 @@ public class AVLTree<K extends Comparable<K>, V> {
         return true;
     }
 
+    // 按从小到大的顺序返回所有的键
+    public ArrayList<K> keys() {
+        ArrayList<K> keys = new ArrayList<>(size);
+        inOrder(root, keys);
+        return keys;
+    }
+
     private void inOrder(Node node, ArrayList<K> keys) {
         if (node == null) {
             return;
@@ -105,6 +215,14 @@ public class AVLTree<K extends Comparable<K>, V> {
         return node.height;
     }
 
+    // 获得以节点 node 为根的子树中的节点数
+    private int getSize(Node node) {
+        if (node == null) {
+            return 0;
+        }
+        return node.size;
+    }
+
     // 获得节点 node 的平衡因子
     private int getBalanceFactor(Node node) {
         if (node == null) {
@@ -129,9 +247,11 @@ public class AVLTree<K extends Comparable<K>, V> {
         x.right = y;
         y.left = T3;
 
-        // 更新 height
+        // 更新 height 和 size，y 是 x 的孩子，先更新 y
         y.height = Math.max(getHeight(y.left), getHeight(y.right)) + 1;
         x.height = Math.max(getHeight(x.left), getHeight(x.right)) + 1;
+        y.size = getSize(y.left) + getSize(y.right) + 1;
+        x.size = getSize(x.left) + getSize(x.right) + 1;
 
         return x;
     }
@@ -152,9 +272,11 @@ public class AVLTree<K extends Comparable<K>, V> {
         x.left = y;
         y.right = T2;
 
-        // 更新 height
+        // 更新 height 和 size，y 是 x 的孩子，先更新 y
         y.height = Math.max(getHeight(y.left), getHeight(y.right)) + 1;
         x.height = Math.max(getHeight(x.left), getHeight(x.right)) + 1;
+        y.size = getSize(y.left) + getSize(y.right) + 1;
+        x.size = getSize(x.left) + getSize(x.right) + 1;
 
         return x;
     }
@@ -180,8 +302,9 @@ public class AVLTree<K extends Comparable<K>, V> {
             node.value = value;
         }
 
-        // 更新 height
+        // 更新 height 和 size
         node.height = 1 + Math.max(getHeight(node.left), getHeight(node.right));
+        node.size = 1 + getSize(node.left) + getSize(node.right);
 
         // 计算平衡因子
         int balanceFactor = getBalanceFactor(node);
@@ -247,6 +370,60 @@ public class AVLTree<K extends Comparable<K>, V> {
         node.value = newValue;
     }
 
+    // 键 key 的排名，也就是比 key 小的键的个数，key 不需要在树中
+    public int rank(K key) {
+        int rank = 0;
+        Node cur = root;
+        while (cur != null) {
+            int cmp = key.compareTo(cur.key);
+            if (cmp < 0) {
+                cur = cur.left;
+            } else if (cmp > 0) {
+                rank += getSize(cur.left) + 1;
+                cur = cur.right;
+            } else {
+                return rank + getSize(cur.left);
+            }
+        }
+        return rank;
+    }
+
+    // 第 k 小的键（k 从 0 开始）
+    public K select(int k) {
+        if (k < 0 || k >= size) {
+            throw new IllegalArgumentException("Select failed. k is illegal.");
+        }
+
+        Node cur = root;
+        while (true) {
+            int leftSize = getSize(cur.left);
+            if (k < leftSize) {
+                cur = cur.left;
+            } else if (k > leftSize) {
+                k -= leftSize + 1;
+                cur = cur.right;
+            } else {
+                return cur.key;
+            }
+        }
+    }
+
+    // [lo, hi) 中的键的个数
+    public int countInRange(K lo, K hi) {
+        if (hi.compareTo(lo) <= 0) {
+            return 0;
+        }
+        return rank(hi) - rank(lo);
+    }
+
+    // 中位数，键的个数为偶数时返回较小的那一个
+    public K median() {
+        if (size == 0) {
+            throw new IllegalArgumentException("AVLTree is empty.");
+        }
+        return select((size - 1) / 2);
+    }
+
     // 返回以node为根的二分搜索树的最小值所在的节点
     private Node minimum(Node node) {
         if (node.left == null) {
@@ -304,8 +481,9 @@ public class AVLTree<K extends Comparable<K>, V> {
             return null;
         }
 
-        // 更新 height
+        // 更新 height 和 size
         retNode.height = 1 + Math.max(getHeight(retNode.left), getHeight(retNode.right));
+        retNode.size = 1 + getSize(retNode.left) + getSize(retNode.right);
 
         // 计算平衡因子
         int balanceFactor = getBalanceFactor(retNode);
@@ -1,8 +1,76 @@
 package avltree;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import bst.BST;
+import heap.TopK;
 
 public class Main {
+
+    /**
+     * 一边添加延迟数据，一边查询百分位数：每添加 interval 个数据查询一次 p50、p90 和 p99。
+     * 对比 AVLTree.select、BST.select（都是 O(logn)）和按顺序取出所有的键再找第 k 个（O(n)）。
+     * 延迟可能重复，键是 延迟 * 2^32 + 序号，保证不重复，取出时再除掉序号。
+     */
+    private static void comparePercentiles(int n, int interval) {
+        Random random = new Random();
+        long[] latencies = new long[n];
+        for (int i = 0; i < n; i++) {
+            // 对数正态分布，大部分在几百微秒，少数有很长的尾巴
+            long micros = (long) Math.exp(6 + random.nextGaussian());
+            latencies[i] = (micros << 32) | i;
+        }
+        double[] percentiles = { 0.5, 0.9, 0.99 };
+
+        long startTime = System.nanoTime();
+        AVLTree<Long, Object> avl = new AVLTree<>();
+        long sum1 = 0;
+        for (int i = 0; i < n; i++) {
+            avl.add(latencies[i], null);
+            if ((i + 1) % interval == 0) {
+                for (double p : percentiles) {
+                    sum1 += avl.select((int) (p * (avl.getSize() - 1))) >> 32;
+                }
+            }
+        }
+        System.out.println("Percentiles (AVLTree.select): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        BST<Long> bst = new BST<>();
+        long sum2 = 0;
+        for (int i = 0; i < n; i++) {
+            bst.add(latencies[i]);
+            if ((i + 1) % interval == 0) {
+                for (double p : percentiles) {
+                    sum2 += bst.select((int) (p * (bst.size() - 1))) >> 32;
+                }
+            }
+        }
+        System.out.println("Percentiles (BST.select): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        AVLTree<Long, Object> walk = new AVLTree<>();
+        long sum3 = 0;
+        for (int i = 0; i < n; i++) {
+            walk.add(latencies[i], null);
+            if ((i + 1) % interval == 0) {
+                ArrayList<Long> keys = walk.keys();
+                for (double p : percentiles) {
+                    sum3 += keys.get((int) (p * (keys.size() - 1))) >> 32;
+                }
+            }
+        }
+        System.out.println("Percentiles (in-order walk): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        if (sum1 != sum2 || sum1 != sum3) {
+            throw new IllegalArgumentException("Error");
+        }
+        System.out.println("p50: " + avl.median() / (1L << 32) + "us, p99: "
+                + avl.select((int) (0.99 * (avl.getSize() - 1))) / (1L << 32) + "us");
+    }
+
     public static void main(String[] args) {
 
         System.out.println("Pride and Prejudice");
@@ -24,10 +92,24 @@ public class Main {
             System.out.println("Frequency of PRIDE: " + map.get("pride"));
             System.out.println("Frequency of PREJUDICE: " + map.get("prejudice"));
 
+            // 使用大小为 k 的堆选出出现次数最多的 k 个单词
+            int k = 10;
+            TopK<String> topK = new TopK<>(k, (a, b) -> map.get(a).compareTo(map.get(b)));
+            for (String word : map.keys()) {
+                topK.offer(word);
+            }
+            List<String> topWords = topK.toSortedList();
+            System.out.println("Top " + k + " words:");
+            for (String word : topWords) {
+                System.out.println(word + ": " + map.get(word));
+            }
+
             System.out.println("is BST : " + map.isBST());
             System.out.println("is Balanced : " + map.isBalanced());
         }
 
         System.out.println();
+
+        comparePercentiles(200_000, 100);
     }
 }
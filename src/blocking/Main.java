@@ -0,0 +1,129 @@
+package blocking;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import pipeline.Threads;
+import queue.BoundedBlockingQueue;
+import stack.BoundedBlockingStack;
+
+/**
+ * Main
+ *
+ * 阻塞队列和阻塞栈的压力测试：大量线程同时作为生产者和消费者，通过一个容量很小的 BoundedBlockingQueue 或者 BoundedBlockingStack 交换数据。
+ *
+ * 运行时支持虚拟线程（JDK 21+）时使用 100_000 个虚拟线程；否则使用平台线程，平台线程开销大，数量减少到 1_000 个。
+ * 载体线程利用率用进程的 CPU 时间除以（运行时间 * CPU 核数）来估算，虚拟线程的载体线程数默认就是 CPU 核数。
+ */
+public class Main {
+
+    // 数据交换的抽象，让队列和栈可以使用同一个测试函数
+    private interface Channel {
+        void put(Integer e) throws InterruptedException;
+
+        Integer poll(long timeout, TimeUnit unit) throws InterruptedException;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        boolean virtual = Threads.isVirtualSupported();
+        int threadCount = virtual ? 100_000 : 1_000;
+        int itemsPerProducer = 100;
+        ThreadFactory threadFactory = virtual ? Threads.virtual("stress") : Threads.platform("stress");
+        System.out.println((virtual ? "virtual" : "platform") + " threads: " + threadCount);
+
+        BoundedBlockingQueue<Integer> queue = new BoundedBlockingQueue<>(1024);
+        testChannel("BoundedBlockingQueue", new Channel() {
+            @Override
+            public void put(Integer e) throws InterruptedException {
+                queue.put(e);
+            }
+
+            @Override
+            public Integer poll(long timeout, TimeUnit unit) throws InterruptedException {
+                return queue.poll(timeout, unit);
+            }
+        }, threadFactory, threadCount, itemsPerProducer);
+
+        BoundedBlockingStack<Integer> stack = new BoundedBlockingStack<>(1024);
+        testChannel("BoundedBlockingStack", new Channel() {
+            @Override
+            public void put(Integer e) throws InterruptedException {
+                stack.put(e);
+            }
+
+            @Override
+            public Integer poll(long timeout, TimeUnit unit) throws InterruptedException {
+                return stack.poll(timeout, unit);
+            }
+        }, threadFactory, threadCount, itemsPerProducer);
+    }
+
+    private static void testChannel(String name, Channel channel, ThreadFactory threadFactory, int threadCount,
+            int itemsPerProducer) throws InterruptedException {
+        int producers = threadCount / 2;
+        int consumers = threadCount - producers;
+        long total = (long) producers * itemsPerProducer;
+
+        LongAdder consumed = new LongAdder();
+        LongAdder sum = new LongAdder();
+
+        long startCpu = processCpuTime();
+        long startTime = System.nanoTime();
+
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < producers; i++) {
+            threads[i] = threadFactory.newThread(() -> {
+                try {
+                    for (int j = 0; j < itemsPerProducer; j++) {
+                        channel.put(j);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        for (int i = producers; i < threadCount; i++) {
+            threads[i] = threadFactory.newThread(() -> {
+                try {
+                    // 所有元素都被取走之后，消费者在下一次等待超时后退出
+                    while (consumed.sum() < total) {
+                        Integer e = channel.poll(10, TimeUnit.MILLISECONDS);
+                        if (e != null) {
+                            sum.add(e);
+                            consumed.increment();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long endTime = System.nanoTime();
+        long endCpu = processCpuTime();
+
+        long expectedSum = (long) producers * itemsPerProducer * (itemsPerProducer - 1) / 2;
+        if (consumed.sum() != total || sum.sum() != expectedSum) {
+            throw new IllegalArgumentException("Error");
+        }
+
+        double time = (endTime - startTime) / 1_000_000_000.0;
+        double utilization = (endCpu - startCpu) / ((endTime - startTime) * (double) Runtime.getRuntime().availableProcessors());
+        System.out.println(String.format("%s, time: %.3fs, throughput: %.0f items/s, carrier utilization: %.1f%%",
+                name, time, total / time, utilization * 100));
+    }
+
+    private static long processCpuTime() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+}
@@ -1,8 +1,26 @@
 package bst;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
 import java.util.Stack;
 import java.util.Queue;
 import java.util.LinkedList;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import forkjoin.ForkJoinScheduler;
+import forkjoin.Task;
 
 /**
  * 关于二叉树：
@@ -20,21 +38,28 @@ import java.util.LinkedList;
  * 所存储的元素必须具有可比较性。
  * 
  * 我们实现的这个二分搜索树不包含重复元素
+ *
+ * 二分搜索树不平衡，按顺序添加元素时会退化成一个链表，树的高度就是元素个数。
+ * 递归的写法每一层占用一个栈帧，树深一万左右就会 StackOverflowError，所以公开的方法都使用非递归的写法，
+ * 需要的栈（比如遍历时）放在堆上。递归的写法保留为 xxxRecursive，用来学习和对比。
  */
 
 // 这里这个二分搜索树需要满足泛型，同时，这个类型必须是可比较的，因此，这个类型 E 需要满足 Comparable 这个接口。
 // 类似地，可以和 Swift 中的协议做对比。
-public class BST<E extends Comparable<E>> {
+public class BST<E extends Comparable<E>> implements Iterable<E> {
 
     // 在类的内部定义一个二分搜索树的节点类
     private class Node {
         public E e;
         public Node left, right;
+        // 以这个节点为根的子树中的节点数，用来在 O(h) 内计算排名和选择第 k 小的元素
+        public int size;
 
         public Node(E e) {
             this.e = e;
             left = null;
             right = null;
+            size = 1;
         }
     }
 
@@ -43,23 +68,360 @@ public class BST<E extends Comparable<E>> {
     // 元素数量
     private int size;
 
+    // fingerAdd 使用的手指
+    private ArrayList<Node> fingerPath;
+    private ArrayList<E> fingerLo, fingerHi;
+    // fingerPending[i] 是添加到 fingerPath[i] 的子树中、还没有加到 fingerPath[0...i] 的子树大小上的元素个数
+    private int[] fingerPending;
+    // fingerPending 中所有的个数之和，为 0 时不需要 settleFinger
+    private int fingerPendingCount;
+
     public BST() {
         root = null;
         size = 0;
+        fingerPath = new ArrayList<>();
+        fingerLo = new ArrayList<>();
+        fingerHi = new ArrayList<>();
+        fingerPending = new int[16];
+        fingerPendingCount = 0;
     }
 
     public int size() {
         return size;
     }
 
+    /**
+     * 用从小到大排好序、没有重复的元素创建一棵平衡的二分搜索树，O(n)。
+     * 逐个 add 有序的元素会让树退化成链表，O(n^2)；这里每次取区间中间的元素作为根，左右两半分别递归地创建左右子树，
+     * 得到的树的高度是 O(logn) 的，递归的深度也是 O(logn)。
+     */
+    public static <E extends Comparable<E>> BST<E> fromSorted(E[] arr) {
+        checkSorted(arr);
+
+        BST<E> bst = new BST<>();
+        bst.root = bst.build(arr, 0, arr.length - 1);
+        bst.size = arr.length;
+        return bst;
+    }
+
+    /**
+     * 用迭代器按从小到大的顺序给出的元素创建一棵平衡的二分搜索树，O(n)。
+     * 事先不知道元素个数，所以先把元素放进一个列表。
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <E extends Comparable<E>> BST<E> fromSorted(Iterator<E> it) {
+        ArrayList<E> list = new ArrayList<>();
+        while (it.hasNext()) {
+            list.add(it.next());
+        }
+        return fromSorted((E[]) list.toArray(new Comparable[0]));
+    }
+
+    /**
+     * 并行地用有序的元素创建一棵平衡的二分搜索树，左右两半在不同的线程上创建。
+     */
+    public static <E extends Comparable<E>> BST<E> fromSorted(E[] arr, ForkJoinScheduler scheduler) {
+        checkSorted(arr);
+
+        BST<E> bst = new BST<>();
+        bst.root = scheduler.invoke(bst.new BuildTask(arr, 0, arr.length - 1));
+        bst.size = arr.length;
+        return bst;
+    }
+
+    private static <E extends Comparable<E>> void checkSorted(E[] arr) {
+        for (int i = 1; i < arr.length; i++) {
+            if (arr[i - 1].compareTo(arr[i]) >= 0) {
+                throw new IllegalArgumentException("Elements must be sorted and distinct.");
+            }
+        }
+    }
+
+    // 用 arr[l...r] 创建一棵平衡的二分搜索树，返回根节点
+    private Node build(E[] arr, int l, int r) {
+        if (l > r) {
+            return null;
+        }
+
+        int mid = l + (r - l) / 2;
+        Node node = new Node(arr[mid]);
+        node.left = build(arr, l, mid - 1);
+        node.right = build(arr, mid + 1, r);
+        node.size = r - l + 1;
+        return node;
+    }
+
+    // 区间元素个数小于这个值就不再 fork 子任务
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private class BuildTask extends Task<Node> {
+        private E[] arr;
+        private int l, r;
+
+        public BuildTask(E[] arr, int l, int r) {
+            this.arr = arr;
+            this.l = l;
+            this.r = r;
+        }
+
+        @Override
+        protected Node compute() {
+            if (r - l + 1 <= PARALLEL_THRESHOLD) {
+                return build(arr, l, r);
+            }
+
+            int mid = l + (r - l) / 2;
+            BuildTask left = new BuildTask(arr, l, mid - 1);
+            left.fork();
+            Node node = new Node(arr[mid]);
+            node.right = new BuildTask(arr, mid + 1, r).compute();
+            node.left = left.join();
+            node.size = r - l + 1;
+            return node;
+        }
+    }
+
     public boolean isEmpty() {
         return size == 0;
     }
 
+    // 以 node 为根的子树中的节点数
+    private int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
     /**
-     * 给树添加新元素。
+     * 给树添加新元素。非递归写法：从根节点向下找到应该插入的空位置。
+     * 元素已经存在时什么都不做，所以先查找一次，确定要插入之后，再沿着路径把每个节点的子树大小加一。
      */
     public void add(E e) {
+        if (contains(e)) {
+            return;
+        }
+
+        Node node = new Node(e);
+        size++;
+        if (root == null) {
+            root = node;
+            return;
+        }
+
+        Node cur = root;
+        while (true) {
+            cur.size++;
+            if (e.compareTo(cur.e) < 0) {
+                if (cur.left == null) {
+                    cur.left = node;
+                    return;
+                }
+                cur = cur.left;
+            } else {
+                if (cur.right == null) {
+                    cur.right = node;
+                    return;
+                }
+                cur = cur.right;
+            }
+        }
+    }
+
+    /**
+     * 从上一次 fingerAdd 添加的位置（手指）开始添加元素，而不是每次都从根开始。
+     * 手指记录了从根到上一个新节点的路径，以及路径上每个节点的子树中元素的范围 (lo, hi)。
+     * 添加时沿着路径向上，找到第一个范围包含 e 的节点，再从它开始向下找，代价和 e 离上一个元素有多「远」有关，
+     * 连续添加递增的元素时（每个新元素都在上一个的右边）是 O(1) 的。
+     *
+     * 路径上的节点的子树大小也要加一，每次都从根加下来就又是 O(h) 了，所以先记在 fingerPending 中，
+     * 离开某个节点（向上走过它）或者有其他方法需要用到子树大小的时候再一起加上（settleFinger）。
+     * 只有删除会改变已有节点之间的关系，删除之后手指就失效了，下一次从根开始。
+     */
+    public void fingerAdd(E e) {
+        if (root == null) {
+            root = new Node(e);
+            size++;
+            pushFinger(root, null, null);
+            return;
+        }
+        if (fingerPath.isEmpty()) {
+            pushFinger(root, null, null);
+        }
+
+        int i = fingerPath.size() - 1;
+        while (i > 0 && !inFingerRange(i, e)) {
+            i--;
+        }
+        truncateFinger(i + 1);
+
+        Node cur = fingerPath.get(i);
+        E lo = fingerLo.get(i);
+        E hi = fingerHi.get(i);
+        while (true) {
+            int cmp = e.compareTo(cur.e);
+            if (cmp == 0) {
+                return;
+            }
+
+            Node next = cmp < 0 ? cur.left : cur.right;
+            if (cmp < 0) {
+                hi = cur.e;
+            } else {
+                lo = cur.e;
+            }
+
+            if (next == null) {
+                next = new Node(e);
+                if (cmp < 0) {
+                    cur.left = next;
+                } else {
+                    cur.right = next;
+                }
+                size++;
+                // 新节点的所有祖先的子树大小都要加一
+                fingerPending[fingerPath.size() - 1]++;
+                fingerPendingCount++;
+                pushFinger(next, lo, hi);
+                return;
+            }
+
+            pushFinger(next, lo, hi);
+            cur = next;
+        }
+    }
+
+    private void pushFinger(Node node, E lo, E hi) {
+        if (fingerPath.size() == fingerPending.length) {
+            fingerPending = Arrays.copyOf(fingerPending, 2 * fingerPending.length);
+        }
+        fingerPath.add(node);
+        fingerLo.add(lo);
+        fingerHi.add(hi);
+    }
+
+    private boolean inFingerRange(int i, E e) {
+        E lo = fingerLo.get(i);
+        E hi = fingerHi.get(i);
+        return (lo == null || lo.compareTo(e) < 0) && (hi == null || e.compareTo(hi) < 0);
+    }
+
+    // 把手指缩短到 length 层，去掉的节点的子树大小加上记下来的个数，剩下的个数记到新的最后一层上
+    private void truncateFinger(int length) {
+        int pending = 0;
+        for (int i = fingerPath.size() - 1; i >= length; i--) {
+            pending += fingerPending[i];
+            fingerPending[i] = 0;
+            fingerPath.get(i).size += pending;
+        }
+        if (length > 0) {
+            fingerPending[length - 1] += pending;
+        } else {
+            fingerPendingCount = 0;
+        }
+
+        fingerPath.subList(length, fingerPath.size()).clear();
+        fingerLo.subList(length, fingerLo.size()).clear();
+        fingerHi.subList(length, fingerHi.size()).clear();
+    }
+
+    // 把手指记下来的个数都加到子树大小上，手指仍然有效
+    private void settleFinger() {
+        if (fingerPendingCount == 0) {
+            return;
+        }
+
+        int pending = 0;
+        for (int i = fingerPath.size() - 1; i >= 0; i--) {
+            pending += fingerPending[i];
+            fingerPending[i] = 0;
+            fingerPath.get(i).size += pending;
+        }
+        fingerPendingCount = 0;
+    }
+
+    // addAll 的栈中的一项：节点，和要交给以它为根的子树的一段元素 arr[l...r]
+    private class Frame {
+        public Node node;
+        public int l, r;
+
+        public Frame(Node node, int l, int r) {
+            this.node = node;
+            this.l = l;
+            this.r = r;
+        }
+    }
+
+    /**
+     * 批量添加从小到大排好序、没有重复的元素，和树中已有的元素一起按顺序合并，只需要一次从上到下的遍历。
+     * 在每个节点用二分查找把这一批元素分成比它小和比它大的两部分，分别交给左右子树；
+     * 走到空位置时，剩下的这一段元素直接创建成一棵平衡的子树接上去（和 fromSorted 一样）。
+     * 每个节点、每段元素只处理一次，比逐个 add 少了很多比较。特别是追加的元素都比已有的大时，
+     * 逐个 add 会在最右边接出一条链，这里则是接上一棵高度为 log(m) 的平衡子树。
+     * 使用栈而不是递归，树很深的时候也不会栈溢出。
+     */
+    public void addAll(E[] arr) {
+        checkSorted(arr);
+        if (arr.length == 0) {
+            return;
+        }
+        settleFinger();
+
+        if (root == null) {
+            root = build(arr, 0, arr.length - 1);
+            size = arr.length;
+            return;
+        }
+
+        Deque<Frame> stack = new ArrayDeque<>();
+        // 访问过的节点按前序排列，倒过来就是每个节点都在它的后代之后，可以从下往上重新计算子树大小
+        ArrayList<Node> visited = new ArrayList<>();
+        stack.push(new Frame(root, 0, arr.length - 1));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.pop();
+            Node node = frame.node;
+            int l = frame.l;
+            int r = frame.r;
+            visited.add(node);
+
+            // arr[l...mid-1] 比 node.e 小，arr[mid...r] 大于等于 node.e
+            int lo = l, hi = r + 1;
+            while (lo < hi) {
+                int mid = lo + (hi - lo) / 2;
+                if (arr[mid].compareTo(node.e) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            int mid = lo;
+            int rightStart = mid <= r && arr[mid].compareTo(node.e) == 0 ? mid + 1 : mid;
+
+            if (l <= mid - 1) {
+                if (node.left == null) {
+                    node.left = build(arr, l, mid - 1);
+                } else {
+                    stack.push(new Frame(node.left, l, mid - 1));
+                }
+            }
+            if (rightStart <= r) {
+                if (node.right == null) {
+                    node.right = build(arr, rightStart, r);
+                } else {
+                    stack.push(new Frame(node.right, rightStart, r));
+                }
+            }
+        }
+
+        for (int i = visited.size() - 1; i >= 0; i--) {
+            Node node = visited.get(i);
+            node.size = 1 + size(node.left) + size(node.right);
+        }
+        size = root.size;
+    }
+
+    /**
+     * 给树添加新元素，递归写法。
+     */
+    void addRecursive(E e) {
+        settleFinger();
 
         // if (root == null) {
         //     root = new Node(e);
@@ -111,6 +473,7 @@ public class BST<E extends Comparable<E>> {
             node.right = add(node.right, e);
         }
 
+        node.size = 1 + size(node.left) + size(node.right);
         return node;
     }
 
@@ -118,6 +481,21 @@ public class BST<E extends Comparable<E>> {
      * 查看二分搜索树中是否包含元素 e
      */
     public boolean contains(E e) {
+        Node cur = root;
+        while (cur != null) {
+            int cmp = e.compareTo(cur.e);
+            if (cmp == 0) {
+                return true;
+            }
+            cur = cmp < 0 ? cur.left : cur.right;
+        }
+        return false;
+    }
+
+    /**
+     * 递归写法。
+     */
+    boolean containsRecursive(E e) {
         return contains(root, e);
     }
 
@@ -144,7 +522,7 @@ public class BST<E extends Comparable<E>> {
      * 前序遍历就是先访问节点，然后访问左右子树。
      */
     public void preOrder() {
-        preOrder(root);
+        preOrderNR();
     }
 
     /**
@@ -162,10 +540,21 @@ public class BST<E extends Comparable<E>> {
         preOrder(node.right);
     }
 
+    /**
+     * 递归写法。
+     */
+    void preOrderRecursive() {
+        preOrder(root);
+    }
+
     /**
      * 非递归写法的前序遍历。
      */
     public void preOrderNR() {
+        if (root == null) {
+            return;
+        }
+
         Stack<Node> stack = new Stack<>();
 
         stack.push(root);
@@ -188,7 +577,7 @@ public class BST<E extends Comparable<E>> {
      * 中序遍历就是先遍历左子树，再遍历根节点，再遍历右子树。
      */
     public void inOrder() {
-        inOrder(root);
+        inOrderNR();
     }
 
     /**
@@ -204,13 +593,40 @@ public class BST<E extends Comparable<E>> {
         inOrder(node.right);
     }
 
+    /**
+     * 递归写法。
+     */
+    void inOrderRecursive() {
+        inOrder(root);
+    }
+
+    /**
+     * 非递归写法的中序遍历。
+     * 先沿着左孩子一路压栈，栈顶就是下一个要访问的节点，访问之后再对它的右子树做同样的事情。
+     */
+    public void inOrderNR() {
+        Deque<Node> stack = new ArrayDeque<>();
+        Node cur = root;
+
+        while (cur != null || !stack.isEmpty()) {
+            while (cur != null) {
+                stack.push(cur);
+                cur = cur.left;
+            }
+
+            cur = stack.pop();
+            System.out.println(cur.e);
+            cur = cur.right;
+        }
+    }
+
     /**
      * 二分搜索树的后序遍历。
      * 后序遍历就是先遍历左右子树，再遍历根节点。
      * 后序遍历的一个应用是为二分搜索树释放内存。
      */
     public void postOrder() {
-        postOrder(root);
+        postOrderNR();
     }
 
     private void postOrder(Node node) {
@@ -218,11 +634,45 @@ public class BST<E extends Comparable<E>> {
             return;
         }
 
-        inOrder(node.left);
-        inOrder(node.right);
+        postOrder(node.left);
+        postOrder(node.right);
         System.out.println(node.e);
     }
 
+    /**
+     * 递归写法。
+     */
+    void postOrderRecursive() {
+        postOrder(root);
+    }
+
+    /**
+     * 非递归写法的后序遍历。
+     * 和中序遍历一样沿着左孩子压栈，但是栈顶节点的右子树还没有访问过时，先去访问右子树，
+     * 用 prev 记录上一个访问的节点，如果它就是栈顶节点的右孩子，说明右子树已经访问完了。
+     */
+    public void postOrderNR() {
+        Deque<Node> stack = new ArrayDeque<>();
+        Node cur = root;
+        Node prev = null;
+
+        while (cur != null || !stack.isEmpty()) {
+            while (cur != null) {
+                stack.push(cur);
+                cur = cur.left;
+            }
+
+            Node top = stack.peek();
+            if (top.right != null && top.right != prev) {
+                cur = top.right;
+            } else {
+                stack.pop();
+                System.out.println(top.e);
+                prev = top;
+            }
+        }
+    }
+
     /**
      * 层序遍历。顾名思义，就是从跟节点开始一层一层遍历，每层从左到右。
      * 层序遍历一般使用非递归的算法完成，需要使用队列。这也是队列的一个不错的应用。
@@ -230,6 +680,10 @@ public class BST<E extends Comparable<E>> {
      * 前序遍历、中序遍历、后序遍历都是深度优先遍历，而层序遍历是广度优先遍历。
      */
     public void levelOrder() {
+        if (root == null) {
+            return;
+        }
+
         Queue<Node> q = new LinkedList<>();
         q.add(root);
 
@@ -247,6 +701,599 @@ public class BST<E extends Comparable<E>> {
         }
     }
 
+    /**
+     * 按从小到大的顺序（中序遍历）迭代，可以直接用在 for-each 中。
+     *
+     * 所有的迭代器都是惰性的：不会先把元素全部放进一个列表，而是用一个显式的栈记录遍历的进度，每次 next 只往前走一步，
+     * 栈的大小不超过树的高度。迭代的过程中不能修改树。
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return inOrderIterator();
+    }
+
+    /**
+     * 前序遍历的迭代器。
+     */
+    public Iterator<E> preOrderIterator() {
+        return new Iterator<E>() {
+            private Deque<Node> stack = new ArrayDeque<>();
+
+            {
+                if (root != null) {
+                    stack.push(root);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+
+                Node cur = stack.pop();
+                if (cur.right != null) {
+                    stack.push(cur.right);
+                }
+                if (cur.left != null) {
+                    stack.push(cur.left);
+                }
+                return cur.e;
+            }
+        };
+    }
+
+    /**
+     * 中序遍历的迭代器。
+     */
+    public Iterator<E> inOrderIterator() {
+        return new RangeIterator(null, null);
+    }
+
+    /**
+     * 后序遍历的迭代器，和 postOrderNR 一样，用 prev 判断栈顶节点的右子树是否已经访问完。
+     */
+    public Iterator<E> postOrderIterator() {
+        return new Iterator<E>() {
+            private Deque<Node> stack = new ArrayDeque<>();
+            private Node cur = root;
+            private Node prev = null;
+
+            @Override
+            public boolean hasNext() {
+                return cur != null || !stack.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                while (true) {
+                    while (cur != null) {
+                        stack.push(cur);
+                        cur = cur.left;
+                    }
+
+                    Node top = stack.peek();
+                    if (top.right != null && top.right != prev) {
+                        cur = top.right;
+                    } else {
+                        stack.pop();
+                        prev = top;
+                        return top.e;
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * 层序遍历的迭代器，队列的大小不超过树最宽的一层。
+     */
+    public Iterator<E> levelOrderIterator() {
+        return new Iterator<E>() {
+            private Deque<Node> queue = new ArrayDeque<>();
+
+            {
+                if (root != null) {
+                    queue.add(root);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !queue.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (queue.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+
+                Node cur = queue.remove();
+                if (cur.left != null) {
+                    queue.add(cur.left);
+                }
+                if (cur.right != null) {
+                    queue.add(cur.right);
+                }
+                return cur.e;
+            }
+        };
+    }
+
+    /**
+     * 小于等于 e 的最大元素，不存在时返回 null。
+     */
+    public E floor(E e) {
+        Node cur = root;
+        E ret = null;
+        while (cur != null) {
+            int cmp = e.compareTo(cur.e);
+            if (cmp == 0) {
+                return cur.e;
+            } else if (cmp < 0) {
+                cur = cur.left;
+            } else {
+                // cur 比 e 小，是一个候选，更大的候选只可能在右子树
+                ret = cur.e;
+                cur = cur.right;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * 大于等于 e 的最小元素，不存在时返回 null。
+     */
+    public E ceiling(E e) {
+        Node cur = root;
+        E ret = null;
+        while (cur != null) {
+            int cmp = e.compareTo(cur.e);
+            if (cmp == 0) {
+                return cur.e;
+            } else if (cmp > 0) {
+                cur = cur.right;
+            } else {
+                ret = cur.e;
+                cur = cur.left;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * 从小到大迭代 [lo, hi) 中的元素。
+     * 只访问从根到 lo 的路径上的节点和范围内的 k 个节点，O(h + k)，不需要遍历整棵树。
+     */
+    public Iterable<E> range(E lo, E hi) {
+        return () -> new RangeIterator(lo, hi);
+    }
+
+    /**
+     * 从小到大迭代小于 hi 的元素。
+     */
+    public Iterable<E> headSet(E hi) {
+        return () -> new RangeIterator(null, hi);
+    }
+
+    /**
+     * 从小到大迭代大于等于 lo 的元素。
+     */
+    public Iterable<E> tailSet(E lo) {
+        return () -> new RangeIterator(lo, null);
+    }
+
+    /**
+     * 从小到大迭代 [lo, hi) 中的元素，lo 或者 hi 为 null 表示这一边没有限制。
+     * 和中序遍历的迭代器一样沿着左孩子压栈，但是比 lo 小的节点和它的左子树都不需要访问，直接转向右孩子；
+     * 出栈的节点超出 hi 时，之后的节点都更大，迭代就结束了。
+     */
+    private class RangeIterator implements Iterator<E> {
+        private Deque<Node> stack;
+        private E lo, hi;
+        private Node next;
+
+        public RangeIterator(E lo, E hi) {
+            this.lo = lo;
+            this.hi = hi;
+            stack = new ArrayDeque<>();
+            pushLeft(root);
+            advance();
+        }
+
+        private boolean aboveLo(E e) {
+            return lo == null || e.compareTo(lo) >= 0;
+        }
+
+        private boolean belowHi(E e) {
+            return hi == null || e.compareTo(hi) < 0;
+        }
+
+        // 从 node 开始沿着左孩子压栈，跳过比 lo 小的节点
+        private void pushLeft(Node node) {
+            while (node != null) {
+                if (aboveLo(node.e)) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        private void advance() {
+            if (stack.isEmpty()) {
+                next = null;
+                return;
+            }
+
+            Node cur = stack.pop();
+            if (!belowHi(cur.e)) {
+                stack.clear();
+                next = null;
+                return;
+            }
+            pushLeft(cur.right);
+            next = cur;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            E ret = next.e;
+            advance();
+            return ret;
+        }
+    }
+
+    /**
+     * 并行遍历，对树中每一个元素执行 action，不保证访问的顺序，action 需要是线程安全的。
+     * 左右子树是两棵独立的树，可以分别交给不同的线程遍历。
+     * 只在树的上面 forkDepth 层 fork 子任务，任务数量够所有线程分就可以了，子树的元素个数小于 PARALLEL_THRESHOLD 时也不再 fork，
+     * 再往下就用非递归的写法直接遍历。每 fork 一层就要递归一层，所以层数必须有上限，否则不平衡的树（比如按顺序添加的）会栈溢出。
+     */
+    public void parallelForEach(ForkJoinScheduler scheduler, Consumer<E> action) {
+        settleFinger();
+        scheduler.invoke(new ForEachTask(root, forkDepth(scheduler), action));
+    }
+
+    // 大约每个线程 8 个任务，窃取的时候才有足够的任务可以分
+    private static int forkDepth(ForkJoinScheduler scheduler) {
+        return 32 - Integer.numberOfLeadingZeros(scheduler.getParallelism()) + 3;
+    }
+
+    // 还可以 fork 的时候才拆分成左右子树
+    private boolean shouldFork(Node node, int forkDepth) {
+        return forkDepth > 0 && size(node) > PARALLEL_THRESHOLD;
+    }
+
+    private class ForEachTask extends Task<Void> {
+        private Node node;
+        private int forkDepth;
+        private Consumer<E> action;
+
+        public ForEachTask(Node node, int forkDepth, Consumer<E> action) {
+            this.node = node;
+            this.forkDepth = forkDepth;
+            this.action = action;
+        }
+
+        @Override
+        protected Void compute() {
+            if (!shouldFork(node, forkDepth)) {
+                forEach(node, action);
+                return null;
+            }
+
+            ForEachTask left = new ForEachTask(node.left, forkDepth - 1, action);
+            left.fork();
+            action.accept(node.e);
+            new ForEachTask(node.right, forkDepth - 1, action).compute();
+            left.join();
+            return null;
+        }
+    }
+
+    /**
+     * 并行地把每个元素用 mapper 映射之后，用 combiner 归约成一个值，树为空时返回 identity。
+     * 按照从小到大的顺序合并（左子树的结果、节点、右子树的结果），所以 combiner 只需要满足结合律，不需要满足交换律。
+     */
+    public <R> R parallelReduce(ForkJoinScheduler scheduler, R identity, Function<? super E, ? extends R> mapper,
+            BinaryOperator<R> combiner) {
+        settleFinger();
+        return scheduler.invoke(new ReduceTask<>(root, forkDepth(scheduler), identity, mapper, combiner));
+    }
+
+    private class ReduceTask<R> extends Task<R> {
+        private Node node;
+        private int forkDepth;
+        private R identity;
+        private Function<? super E, ? extends R> mapper;
+        private BinaryOperator<R> combiner;
+
+        public ReduceTask(Node node, int forkDepth, R identity, Function<? super E, ? extends R> mapper,
+                BinaryOperator<R> combiner) {
+            this.node = node;
+            this.forkDepth = forkDepth;
+            this.identity = identity;
+            this.mapper = mapper;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected R compute() {
+            if (!shouldFork(node, forkDepth)) {
+                R ret = identity;
+                Deque<Node> stack = new ArrayDeque<>();
+                Node cur = node;
+                while (cur != null || !stack.isEmpty()) {
+                    while (cur != null) {
+                        stack.push(cur);
+                        cur = cur.left;
+                    }
+                    cur = stack.pop();
+                    ret = combiner.apply(ret, mapper.apply(cur.e));
+                    cur = cur.right;
+                }
+                return ret;
+            }
+
+            ReduceTask<R> left = new ReduceTask<>(node.left, forkDepth - 1, identity, mapper, combiner);
+            left.fork();
+            R right = new ReduceTask<>(node.right, forkDepth - 1, identity, mapper, combiner).compute();
+            R ret = combiner.apply(left.join(), mapper.apply(node.e));
+            return combiner.apply(ret, right);
+        }
+    }
+
+    /**
+     * 并行地把元素收集到容器中，和 Stream.collect 一样：每个任务用 supplier 创建一个容器，
+     * 用 accumulator 放入元素，再用 combiner 把右边的容器合并到左边的容器中。元素按从小到大的顺序放入。
+     */
+    public <C> C parallelCollect(ForkJoinScheduler scheduler, Supplier<C> supplier, BiConsumer<C, ? super E> accumulator,
+            BiConsumer<C, C> combiner) {
+        settleFinger();
+        return scheduler.invoke(new CollectTask<>(root, forkDepth(scheduler), supplier, accumulator, combiner));
+    }
+
+    private class CollectTask<C> extends Task<C> {
+        private Node node;
+        private int forkDepth;
+        private Supplier<C> supplier;
+        private BiConsumer<C, ? super E> accumulator;
+        private BiConsumer<C, C> combiner;
+
+        public CollectTask(Node node, int forkDepth, Supplier<C> supplier, BiConsumer<C, ? super E> accumulator,
+                BiConsumer<C, C> combiner) {
+            this.node = node;
+            this.forkDepth = forkDepth;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected C compute() {
+            if (!shouldFork(node, forkDepth)) {
+                C ret = supplier.get();
+                Deque<Node> stack = new ArrayDeque<>();
+                Node cur = node;
+                while (cur != null || !stack.isEmpty()) {
+                    while (cur != null) {
+                        stack.push(cur);
+                        cur = cur.left;
+                    }
+                    cur = stack.pop();
+                    accumulator.accept(ret, cur.e);
+                    cur = cur.right;
+                }
+                return ret;
+            }
+
+            CollectTask<C> left = new CollectTask<>(node.left, forkDepth - 1, supplier, accumulator, combiner);
+            left.fork();
+            C right = new CollectTask<>(node.right, forkDepth - 1, supplier, accumulator, combiner).compute();
+            C ret = left.join();
+            accumulator.accept(ret, node.e);
+            combiner.accept(ret, right);
+            return ret;
+        }
+    }
+
+    /**
+     * 按从小到大的顺序遍历的 Spliterator，可以按子树拆分，这样 parallelStream 才能把树分给多个线程处理。
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        settleFinger();
+        return new TreeSpliterator(root);
+    }
+
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    // TreeSpliterator 中的一段：一整棵子树，或者单独的一个节点（它的左右子树不包括在内）
+    private class Piece {
+        public Node node;
+        public boolean single;
+
+        public Piece(Node node, boolean single) {
+            this.node = node;
+            this.single = single;
+        }
+
+        public int count() {
+            return single ? 1 : size(node);
+        }
+    }
+
+    /**
+     * 剩下的元素由若干段组成，按从大到小的顺序放在 pieces 中，最后一段是最小的，这样取出和展开第一段都在列表的末尾。
+     * 拆分时把前面大约一半的元素分出去：如果某一整棵子树超过了剩下元素的一半，先把它展开成左子树、节点、右子树三段，
+     * 再从前往后把若干段交给新的 Spliterator。有子树的大小，拆分之后两边的元素个数都是精确的。
+     * 前进时不断展开第一段，直到第一段是单独的节点，这和非递归的中序遍历时把左边的链压栈是一样的。
+     */
+    private class TreeSpliterator implements Spliterator<E> {
+        private ArrayList<Piece> pieces;
+        private int count;
+
+        public TreeSpliterator(Node node) {
+            pieces = new ArrayList<>();
+            if (node != null) {
+                pieces.add(new Piece(node, false));
+            }
+            count = size(node);
+        }
+
+        private TreeSpliterator(ArrayList<Piece> pieces, int count) {
+            this.pieces = pieces;
+            this.count = count;
+        }
+
+        // 把第 i 段整棵子树展开成右子树、节点、左子树三段
+        private void expand(int i) {
+            Node node = pieces.get(i).node;
+            pieces.set(i, new Piece(node, true));
+            if (node.left != null) {
+                pieces.add(i + 1, new Piece(node.left, false));
+            }
+            if (node.right != null) {
+                pieces.add(i, new Piece(node.right, false));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (pieces.isEmpty()) {
+                return false;
+            }
+
+            int last = pieces.size() - 1;
+            while (!pieces.get(last).single) {
+                expand(last);
+                last = pieces.size() - 1;
+            }
+            Piece piece = pieces.remove(last);
+            count--;
+            action.accept(piece.node.e);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            Deque<Node> stack = new ArrayDeque<>();
+            for (int i = pieces.size() - 1; i >= 0; i--) {
+                Piece piece = pieces.get(i);
+                if (piece.single) {
+                    action.accept(piece.node.e);
+                    continue;
+                }
+
+                Node cur = piece.node;
+                while (cur != null || !stack.isEmpty()) {
+                    while (cur != null) {
+                        stack.push(cur);
+                        cur = cur.left;
+                    }
+                    cur = stack.pop();
+                    action.accept(cur.e);
+                    cur = cur.right;
+                }
+            }
+            pieces.clear();
+            count = 0;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int half = count / 2;
+            if (half == 0) {
+                return null;
+            }
+
+            // 超过一半的子树最多只有一棵，展开到它的每一段都不超过一半
+            for (int i = 0; i < pieces.size(); i++) {
+                while (!pieces.get(i).single && pieces.get(i).count() > half) {
+                    expand(i);
+                }
+            }
+
+            ArrayList<Piece> prefix = new ArrayList<>();
+            int prefixCount = 0;
+            while (pieces.size() > 1 && prefixCount + pieces.get(pieces.size() - 1).count() <= half) {
+                Piece piece = pieces.remove(pieces.size() - 1);
+                prefix.add(0, piece);
+                prefixCount += piece.count();
+            }
+            if (prefix.isEmpty()) {
+                return null;
+            }
+
+            count -= prefixCount;
+            return new TreeSpliterator(prefix, prefixCount);
+        }
+
+        @Override
+        public long estimateSize() {
+            return count;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | SORTED | SIZED | SUBSIZED | NONNULL;
+        }
+
+        @Override
+        public Comparator<? super E> getComparator() {
+            // 按照自然顺序排序
+            return null;
+        }
+    }
+
+    // 顺序地前序遍历以 node 为根的二分搜索树
+    private void forEach(Node node, Consumer<E> action) {
+        if (node == null) {
+            return;
+        }
+
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node cur = stack.pop();
+            action.accept(cur.e);
+
+            if (cur.right != null) {
+                stack.push(cur.right);
+            }
+            if (cur.left != null) {
+                stack.push(cur.left);
+            }
+        }
+    }
+
     /**
      * 寻找二分搜索树的最小元素。
      */
@@ -258,13 +1305,12 @@ public class BST<E extends Comparable<E>> {
         return minimum(root).e;
     }
 
+    // 一直向左走，直到没有左孩子
     private Node minimum(Node node) {
-
-        if (node.left == null) {
-            return node;
+        while (node.left != null) {
+            node = node.left;
         }
-
-        return minimum(node.left);
+        return node;
     }
 
     /**
@@ -278,13 +1324,78 @@ public class BST<E extends Comparable<E>> {
         return maximum(root).e;
     }
 
+    // 一直向右走，直到没有右孩子
     private Node maximum(Node node) {
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
 
-        if (node.right == null) {
-            return node;
+    /**
+     * 元素 e 的排名，也就是树中比 e 小的元素个数，e 不需要在树中。
+     * 向右走的时候，左子树和当前节点都比 e 小，加上它们的个数，O(h)。
+     */
+    public int rank(E e) {
+        settleFinger();
+        int rank = 0;
+        Node cur = root;
+        while (cur != null) {
+            int cmp = e.compareTo(cur.e);
+            if (cmp < 0) {
+                cur = cur.left;
+            } else if (cmp > 0) {
+                rank += size(cur.left) + 1;
+                cur = cur.right;
+            } else {
+                return rank + size(cur.left);
+            }
         }
+        return rank;
+    }
 
-        return maximum(node.right);
+    /**
+     * 第 k 小的元素（k 从 0 开始），O(h)。
+     * 左子树有 size(left) 个元素，k 小于它就在左子树中，等于它就是当前节点，否则在右子树中找第 k - size(left) - 1 小的。
+     */
+    public E select(int k) {
+        settleFinger();
+        if (k < 0 || k >= size) {
+            throw new IllegalArgumentException("Select failed. k is illegal.");
+        }
+
+        Node cur = root;
+        while (true) {
+            int leftSize = size(cur.left);
+            if (k < leftSize) {
+                cur = cur.left;
+            } else if (k > leftSize) {
+                k -= leftSize + 1;
+                cur = cur.right;
+            } else {
+                return cur.e;
+            }
+        }
+    }
+
+    /**
+     * [lo, hi) 中的元素个数，和 range 的范围一致，O(h)。
+     */
+    public int countInRange(E lo, E hi) {
+        if (hi.compareTo(lo) <= 0) {
+            return 0;
+        }
+        return rank(hi) - rank(lo);
+    }
+
+    /**
+     * 中位数，元素个数为偶数时返回较小的那一个。
+     */
+    public E median() {
+        if (size == 0) {
+            throw new IllegalArgumentException("BST is empty.");
+        }
+        return select((size - 1) / 2);
     }
 
     /**
@@ -292,9 +1403,19 @@ public class BST<E extends Comparable<E>> {
      * 注意点就是，如果最小值所在节点还存在右子树的话，需要把右子树的根节点接到该节点的位置。
      */
     public E removeMin() {
+        truncateFinger(0);
         E ret = minimum();
 
-        root = removeMin(root);
+        Node parent = null;
+        Node cur = root;
+        while (cur.left != null) {
+            cur.size--;
+            parent = cur;
+            cur = cur.left;
+        }
+        replaceChild(parent, cur, cur.right);
+        cur.right = null;
+        size--;
 
         return ret;
     }
@@ -312,6 +1433,7 @@ public class BST<E extends Comparable<E>> {
         }
 
         node.left = removeMin(node.left);
+        node.size--;
         return node;
     }
 
@@ -320,9 +1442,19 @@ public class BST<E extends Comparable<E>> {
      * 注意点就是，如果最大值所在节点还存在左子树的话，需要把左子树的根节点接到该节点的位置。
      */
     public E removeMax() {
+        truncateFinger(0);
         E ret = maximum();
 
-        root = removeMax(root);
+        Node parent = null;
+        Node cur = root;
+        while (cur.right != null) {
+            cur.size--;
+            parent = cur;
+            cur = cur.right;
+        }
+        replaceChild(parent, cur, cur.left);
+        cur.left = null;
+        size--;
 
         return ret;
     }
@@ -341,14 +1473,80 @@ public class BST<E extends Comparable<E>> {
             return leftNode;
         }
 
-        node.right = removeMin(node.right);
+        node.right = removeMax(node.right);
+        node.size--;
         return node;
     }
 
     /**
      * 从二分搜索树中删除元素为 e 的节点。
+     * 非递归写法：先找到这个节点和它的父亲，再用和递归写法一样的方式找到顶替它的节点，接到父亲上。
      */
     public void remove(E e) {
+        truncateFinger(0);
+        Node parent = null;
+        Node cur = root;
+        while (cur != null) {
+            int cmp = e.compareTo(cur.e);
+            if (cmp == 0) {
+                break;
+            }
+            parent = cur;
+            cur = cmp < 0 ? cur.left : cur.right;
+        }
+        if (cur == null) {
+            return;
+        }
+
+        // 确定要删除之后，从根到 cur 路径上的节点的子树都少了一个节点
+        for (Node p = root; p != cur; p = e.compareTo(p.e) < 0 ? p.left : p.right) {
+            p.size--;
+        }
+
+        Node replacement;
+        if (cur.left == null) {
+            replacement = cur.right;
+        } else if (cur.right == null) {
+            replacement = cur.left;
+        } else {
+            // 后继是右子树的最小节点，把它从原来的位置摘下来，它的右子树接到它原来的父亲上
+            Node successorParent = cur;
+            Node successor = cur.right;
+            while (successor.left != null) {
+                successor.size--;
+                successorParent = successor;
+                successor = successor.left;
+            }
+            if (successorParent != cur) {
+                successorParent.left = successor.right;
+                successor.right = cur.right;
+            }
+            successor.left = cur.left;
+            successor.size = cur.size - 1;
+            replacement = successor;
+        }
+
+        replaceChild(parent, cur, replacement);
+        cur.left = cur.right = null;
+        size--;
+    }
+
+    // 把 parent 的孩子 child 换成 replacement，parent 为 null 表示 child 是根节点
+    private void replaceChild(Node parent, Node child, Node replacement) {
+        if (parent == null) {
+            root = replacement;
+        } else if (parent.left == child) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+    }
+
+    /**
+     * 递归写法。
+     */
+    void removeRecursive(E e) {
+        truncateFinger(0);
         root = remove(root, e);
     }
 
@@ -359,9 +1557,11 @@ public class BST<E extends Comparable<E>> {
 
         if (e.compareTo(node.e) < 0) {
             node.left = remove(node.left, e);
+            node.size = 1 + size(node.left) + size(node.right);
             return node;
         } else if (e.compareTo(node.e) > 0) {
             node.right = remove(node.right, e);
+            node.size = 1 + size(node.left) + size(node.right);
             return node;
         } else {
             // 待删除节点右子树为空
@@ -386,6 +1586,7 @@ public class BST<E extends Comparable<E>> {
             Node successor = minimum(node.right);
             successor.right = removeMin(node.right);
             successor.left = node.left;
+            successor.size = 1 + size(successor.left) + size(successor.right);
 
             node.left = node.right = null;
 
@@ -402,16 +1603,30 @@ public class BST<E extends Comparable<E>> {
     }
 
     // 生成以 node 为根节点，深度为 depth 的描述二叉树的字符串。
+    // 和前序遍历一样用栈，null 也要输出，所以栈中存放的节点可以是 null，深度放在另一个栈中。
     private void generateBSTString(Node node, int depth, StringBuilder res) {
+        Deque<Node> nodes = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        // ArrayDeque 不能存放 null，用一个没有元素的节点表示 null
+        Node nil = new Node(null);
+        nodes.push(node == null ? nil : node);
+        depths.push(depth);
+
+        while (!nodes.isEmpty()) {
+            Node cur = nodes.pop();
+            int d = depths.pop();
+
+            if (cur == nil) {
+                res.append(generateDepthString(d) + "null\n");
+                continue;
+            }
 
-        if (node == null) {
-            res.append(generateDepthString(depth) + "null\n");
-            return;
+            res.append(generateDepthString(d) + cur.e + "\n");
+            nodes.push(cur.right == null ? nil : cur.right);
+            depths.push(d + 1);
+            nodes.push(cur.left == null ? nil : cur.left);
+            depths.push(d + 1);
         }
-
-        res.append(generateDepthString(depth) + node.e + "\n");
-        generateBSTString(node.left, depth + 1, res);
-        generateBSTString(node.right, depth + 1, res);
     }
 
     private String generateDepthString(int depth) {
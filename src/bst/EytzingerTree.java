@@ -0,0 +1,136 @@
+package bst;
+
+import java.util.ArrayList;
+
+/**
+ * EytzingerTree
+ * 静态的搜索树：创建之后不能修改，只支持查询，元素按照完全二叉树的层序（Eytzinger 顺序）存放在一个数组里。
+ *
+ * 和堆一样，节点 k 的孩子是 2k 和 2k+1（这里从 1 开始编号），不需要节点对象和指针。
+ * 有序数组的二分查找也不需要指针，但是每次访问的位置都离得很远，前几次比较之后几乎每一次都是缓存缺失；
+ * 而层序存放的时候，树的上面几层都集中在数组的开头，总是在缓存里，越往下访问的位置才越分散，
+ * 并且同一层相邻的节点挨在一起，某一层的 4 个（对于 Integer 引用是 16 个）孙子节点通常在同一个缓存行中。
+ *
+ * 查找时从根开始，小于目标就往右走，否则往左走：k = 2k + (data[k] < e ? 1 : 0)，一直走到超出数组，
+ * 循环的次数总是 logn，中间不需要提前退出的判断，JIT 可以把它编译成没有分支的条件传送。
+ * 最后的 k 的二进制就是走过的路径（1 是右，0 是左），最后一次向左走的节点就是大于等于 e 的最小元素，
+ * 去掉 k 末尾的 1 和再一个 0 就得到了这个节点；同理去掉末尾的 0 和再一个 1 是最后一次向右走的节点。
+ *
+ * 没有分支也意味着 CPU 不会猜测着提前访问下一层，每一层都要等上一层比较完，树大的时候一层就是一次缓存缺失
+ * （对于对象还要再加上访问元素本身的一次）。节点 k 往下 4 层的 16 个后代连续地存放在 data[16k ... 16k+15]，
+ * 所以在访问节点 k 的时候顺便和 data[16k] 比较一次，相当于软件预取（Java 中没有预取的指令），
+ * 走到那一层时引用和元素都已经在缓存中了。比较的结果需要「被用到」，否则会被 JIT 当作无用的代码删掉。
+ */
+public class EytzingerTree<E extends Comparable<E>> {
+
+    // 提前访问的是往下 PREFETCH_LEVELS 层的节点
+    private static final int PREFETCH_LEVELS = 4;
+
+    // 提前比较的结果写到这里，防止被优化掉；只在几乎不可能的情况下才真的写，不会有多个线程争用同一个缓存行
+    private static int prefetchSink;
+
+    // data[0] 不使用
+    private Object[] data;
+    private int size;
+
+    /**
+     * 用从小到大排好序、没有重复的元素创建，O(n)。
+     */
+    public EytzingerTree(E[] arr) {
+        if (arr.length >= 1 << 30) {
+            throw new IllegalArgumentException("Too many elements.");
+        }
+        for (int i = 1; i < arr.length; i++) {
+            if (arr[i - 1].compareTo(arr[i]) >= 0) {
+                throw new IllegalArgumentException("Elements must be sorted and distinct.");
+            }
+        }
+
+        size = arr.length;
+        data = new Object[size + 1];
+        build(arr, 0, 1);
+    }
+
+    /**
+     * 用一棵二分搜索树中的元素创建，中序遍历就是有序的。
+     */
+    @SuppressWarnings("unchecked")
+    public EytzingerTree(BST<E> bst) {
+        this((E[]) toArray(bst));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static <E extends Comparable<E>> Object[] toArray(BST<E> bst) {
+        ArrayList<E> list = new ArrayList<>(bst.size());
+        for (E e : bst) {
+            list.add(e);
+        }
+        return list.toArray(new Comparable[0]);
+    }
+
+    // 中序遍历以 k 为根的树，依次填入 arr[i...]，返回下一个要填的 i
+    private int build(E[] arr, int i, int k) {
+        if (k <= size) {
+            i = build(arr, i, 2 * k);
+            data[k] = arr[i++];
+            i = build(arr, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(E e) {
+        E ret = ceiling(e);
+        return ret != null && ret.compareTo(e) == 0;
+    }
+
+    /**
+     * 大于等于 e 的最小元素，不存在时返回 null。
+     */
+    @SuppressWarnings("unchecked")
+    public E ceiling(E e) {
+        int k = 1;
+        int touched = 0;
+        while (k <= size) {
+            if (k <= size >> PREFETCH_LEVELS) {
+                touched += ((E) data[k << PREFETCH_LEVELS]).compareTo(e);
+            }
+            k = 2 * k + (((E) data[k]).compareTo(e) < 0 ? 1 : 0);
+        }
+        sink(touched);
+        // 分两次移位：size 为 2^30 - 1 时 k 可能是 0x7FFFFFFF，一次移 32 位在 Java 中等于没有移位
+        k = k >>> Integer.numberOfTrailingZeros(~k) >>> 1;
+        return k == 0 ? null : (E) data[k];
+    }
+
+    /**
+     * 小于等于 e 的最大元素，不存在时返回 null。
+     */
+    @SuppressWarnings("unchecked")
+    public E floor(E e) {
+        int k = 1;
+        int touched = 0;
+        while (k <= size) {
+            if (k <= size >> PREFETCH_LEVELS) {
+                touched += ((E) data[k << PREFETCH_LEVELS]).compareTo(e);
+            }
+            k = 2 * k + (((E) data[k]).compareTo(e) <= 0 ? 1 : 0);
+        }
+        sink(touched);
+        k = k >>> Integer.numberOfTrailingZeros(k) >>> 1;
+        return k == 0 ? null : (E) data[k];
+    }
+
+    private static void sink(int touched) {
+        if (touched == Integer.MIN_VALUE) {
+            prefetchSink = touched;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package bst;
+
+/**
+ * IntEytzingerTree
+ * 存放 int 的 EytzingerTree，元素不装箱，比较直接在 int[] 上进行，每个缓存行可以放下 16 个元素。
+ *
+ * 和 EytzingerTree 一样在访问节点 k 时提前读取 data[16k]，int 的 16 个后代正好是一个缓存行，同时进行中的内存访问有 4 个。
+ */
+public class IntEytzingerTree {
+
+    // 提前读取的是往下 PREFETCH_LEVELS 层的节点
+    private static final int PREFETCH_LEVELS = 4;
+
+    // 提前读到的值写到这里，防止读取被优化掉；只在几乎不可能的情况下才真的写，不会有多个线程争用同一个缓存行
+    private static int prefetchSink;
+
+    // data[0] 不使用
+    private int[] data;
+    private int size;
+
+    /**
+     * 用从小到大排好序、没有重复的元素创建，O(n)。
+     */
+    public IntEytzingerTree(int[] arr) {
+        if (arr.length >= 1 << 30) {
+            throw new IllegalArgumentException("Too many elements.");
+        }
+        for (int i = 1; i < arr.length; i++) {
+            if (arr[i - 1] >= arr[i]) {
+                throw new IllegalArgumentException("Elements must be sorted and distinct.");
+            }
+        }
+
+        size = arr.length;
+        data = new int[size + 1];
+        build(arr, 0, 1);
+    }
+
+    /**
+     * 用一棵二分搜索树中的元素创建。
+     */
+    public IntEytzingerTree(BST<Integer> bst) {
+        this(toArray(bst));
+    }
+
+    private static int[] toArray(BST<Integer> bst) {
+        int[] arr = new int[bst.size()];
+        int i = 0;
+        for (int e : bst) {
+            arr[i++] = e;
+        }
+        return arr;
+    }
+
+    // 中序遍历以 k 为根的树，依次填入 arr[i...]，返回下一个要填的 i
+    private int build(int[] arr, int i, int k) {
+        if (k <= size) {
+            i = build(arr, i, 2 * k);
+            data[k] = arr[i++];
+            i = build(arr, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int e) {
+        int k = ceilingIndex(e);
+        return k != 0 && data[k] == e;
+    }
+
+    /**
+     * 大于等于 e 的最小元素，不存在时返回 defaultValue。
+     */
+    public int ceiling(int e, int defaultValue) {
+        int k = ceilingIndex(e);
+        return k == 0 ? defaultValue : data[k];
+    }
+
+    /**
+     * 小于等于 e 的最大元素，不存在时返回 defaultValue。
+     */
+    public int floor(int e, int defaultValue) {
+        int k = 1;
+        int touched = 0;
+        while (k <= size) {
+            if (k <= size >> PREFETCH_LEVELS) {
+                touched += data[k << PREFETCH_LEVELS];
+            }
+            k = 2 * k + (data[k] <= e ? 1 : 0);
+        }
+        sink(touched);
+        k = k >>> Integer.numberOfTrailingZeros(k) >>> 1;
+        return k == 0 ? defaultValue : data[k];
+    }
+
+    // 大于等于 e 的最小元素所在的位置，不存在时返回 0
+    private int ceilingIndex(int e) {
+        int k = 1;
+        int touched = 0;
+        while (k <= size) {
+            if (k <= size >> PREFETCH_LEVELS) {
+                touched += data[k << PREFETCH_LEVELS];
+            }
+            k = 2 * k + (data[k] < e ? 1 : 0);
+        }
+        sink(touched);
+        // 分两次移位：size 为 2^30 - 1 时 k 可能是 0x7FFFFFFF，一次移 32 位在 Java 中等于没有移位
+        return k >>> Integer.numberOfTrailingZeros(~k) >>> 1;
+    }
+
+    private static void sink(int touched) {
+        if (touched == Integer.MIN_VALUE) {
+            prefetchSink = touched;
+        }
+    }
+}
@@ -2,13 +2,433 @@ package bst;
 
 import java.util.Random;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+import avltree.AVLTree;
+import forkjoin.ForkJoinScheduler;
 
 /**
  * Main
  */
 public class Main {
 
+    // 递归的写法在默认的线程栈上处理深的树会栈溢出，在一个有大栈的线程上运行，这样才能对比
+    private static double timeInBigStack(Runnable task) {
+        double[] time = new double[1];
+        Thread thread = new Thread(null, () -> {
+            long startTime = System.nanoTime();
+            task.run();
+            time[0] = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        }, "big-stack", 1L << 30);
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return time[0];
+    }
+
+    private static double testAdd(Integer[] keys, boolean recursive) {
+        BST<Integer> bst = new BST<>();
+        double time = timeInBigStack(() -> {
+            for (Integer key : keys) {
+                if (recursive) {
+                    bst.addRecursive(key);
+                } else {
+                    bst.add(key);
+                }
+            }
+            for (Integer key : keys) {
+                if (recursive ? !bst.containsRecursive(key) : !bst.contains(key)) {
+                    throw new IllegalArgumentException("Error");
+                }
+            }
+            for (Integer key : keys) {
+                if (recursive) {
+                    bst.removeRecursive(key);
+                } else {
+                    bst.remove(key);
+                }
+            }
+        });
+
+        if (!bst.isEmpty()) {
+            throw new IllegalArgumentException("Error");
+        }
+        return time;
+    }
+
+    /**
+     * 对比递归和非递归的写法：添加 n 个元素，逐个查找，再逐个删除。
+     * 有序的元素会让树退化成链表，每次操作都是 O(n)，所以有序的情况用小一些的规模。
+     */
+    private static void compareRecursive(int n, int sortedN) {
+        Random random = new Random();
+        Integer[] randomKeys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            randomKeys[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+        Integer[] sortedKeys = new Integer[sortedN];
+        for (int i = 0; i < sortedN; i++) {
+            sortedKeys[i] = i;
+        }
+
+        System.out.println("Random keys, n = " + n + ", recursive: " + testAdd(randomKeys, true) + "s");
+        System.out.println("Random keys, n = " + n + ", iterative: " + testAdd(randomKeys, false) + "s");
+        System.out.println("Sorted keys, n = " + sortedN + ", recursive: " + testAdd(sortedKeys, true) + "s");
+        System.out.println("Sorted keys, n = " + sortedN + ", iterative: " + testAdd(sortedKeys, false) + "s");
+
+        // 在默认的栈上，递归的写法添加有序的元素会栈溢出
+        BST<Integer> bst = new BST<>();
+        try {
+            for (Integer key : sortedKeys) {
+                bst.addRecursive(key);
+            }
+            System.out.println("Recursive add of " + sortedN + " sorted keys succeeded on the default stack.");
+        } catch (StackOverflowError e) {
+            System.out.println("Recursive add overflowed the default stack at depth " + bst.size() + ".");
+        }
+    }
+
+    /**
+     * 范围扫描：在 n 个元素的树中统计 [lo, lo + width) 中的元素个数，width 对应不同的选择率。
+     * 对比 range（只访问相关的节点）和遍历整棵树再过滤。
+     */
+    private static void compareRangeScans(int n, int queries) {
+        Random random = new Random();
+        BST<Integer> bst = new BST<>();
+        for (int i = 0; i < n; i++) {
+            bst.add(random.nextInt(Integer.MAX_VALUE));
+        }
+
+        for (double selectivity : new double[] { 0.0001, 0.001, 0.01, 0.1 }) {
+            int width = (int) (Integer.MAX_VALUE * selectivity);
+            int[] los = new int[queries];
+            for (int i = 0; i < queries; i++) {
+                los[i] = random.nextInt(Integer.MAX_VALUE - width);
+            }
+
+            long startTime = System.nanoTime();
+            long count1 = 0;
+            for (int lo : los) {
+                for (@SuppressWarnings("unused") int e : bst.range(lo, lo + width)) {
+                    count1++;
+                }
+            }
+            double time1 = (System.nanoTime() - startTime) / 1_000_000_000.0;
+
+            startTime = System.nanoTime();
+            long count2 = 0;
+            for (int lo : los) {
+                for (int e : bst) {
+                    if (e >= lo && e < lo + width) {
+                        count2++;
+                    }
+                }
+            }
+            double time2 = (System.nanoTime() - startTime) / 1_000_000_000.0;
+
+            if (count1 != count2) {
+                throw new IllegalArgumentException("Error");
+            }
+            System.out.println("Selectivity " + selectivity + ", " + queries + " queries, range: " + time1
+                    + "s, full scan: " + time2 + "s");
+        }
+    }
+
+    /**
+     * 对比用 n 个有序的键创建树的几种方式：
+     * BST 逐个 add 有序的键会退化成链表，只能和逐个 add 打乱顺序的键对比；AVLTree 逐个 add 有序的键，每次都要旋转。
+     */
+    private static void compareBulkLoad(int n) {
+        Integer[] sorted = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = i;
+        }
+        Integer[] shuffled = sorted.clone();
+        Random random = new Random();
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer t = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = t;
+        }
+        ForkJoinScheduler scheduler = new ForkJoinScheduler();
+
+        long startTime = System.nanoTime();
+        BST<Integer> bst = new BST<>();
+        for (Integer key : shuffled) {
+            bst.add(key);
+        }
+        System.out.println("BST add (shuffled), n = " + n + ": " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+        bst = null;
+
+        startTime = System.nanoTime();
+        bst = BST.fromSorted(sorted);
+        System.out.println("BST fromSorted: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+        bst = null;
+
+        startTime = System.nanoTime();
+        bst = BST.fromSorted(sorted, scheduler);
+        System.out.println("BST fromSorted (parallel): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+        if (bst.size() != n || bst.median() != (n - 1) / 2) {
+            throw new IllegalArgumentException("Error");
+        }
+        bst = null;
+
+        startTime = System.nanoTime();
+        AVLTree<Integer, Integer> avl = new AVLTree<>();
+        for (Integer key : sorted) {
+            avl.add(key, key);
+        }
+        System.out.println("AVLTree add (sorted): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+        avl = null;
+
+        startTime = System.nanoTime();
+        avl = AVLTree.fromSorted(sorted, sorted);
+        System.out.println("AVLTree fromSorted: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+        avl = null;
+
+        startTime = System.nanoTime();
+        avl = AVLTree.fromSorted(sorted, sorted, scheduler);
+        System.out.println("AVLTree fromSorted (parallel): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+        if (avl.getSize() != n || !avl.isBalanced() || avl.select(n / 3) != n / 3) {
+            throw new IllegalArgumentException("Error");
+        }
+
+        scheduler.shutdown();
+    }
+
+    private interface Lookup {
+        boolean contains(int e);
+    }
+
+    private static void testLookup(String name, Lookup lookup, int[] queries, int expected) {
+        long startTime = System.nanoTime();
+        int hits = 0;
+        for (int q : queries) {
+            if (lookup.contains(q)) {
+                hits++;
+            }
+        }
+        double time = (System.nanoTime() - startTime) / 1_000_000_000.0;
+
+        if (hits != expected) {
+            throw new IllegalArgumentException("Error");
+        }
+        System.out.println(name + ": " + time + "s");
+    }
+
+    /**
+     * 只读查找的对比：n 个键是 0, 2, 4, ...，随机查找 [0, 2n) 中的数，一半能找到。
+     * n 从 1K 到 maxN 每次乘 10，对象的结构（BST、AVLTree、Integer[]）内存占用大，只测到 maxObjectN。
+     */
+    private static void compareStaticSearch(int maxObjectN, int maxN, int queryCount) {
+        Random random = new Random();
+        for (int n = 1000; n <= maxN; n *= 10) {
+            int[] keys = new int[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = 2 * i;
+            }
+            int[] queries = new int[queryCount];
+            int expected = 0;
+            for (int i = 0; i < queryCount; i++) {
+                queries[i] = random.nextInt(2 * n);
+                if (queries[i] % 2 == 0) {
+                    expected++;
+                }
+            }
+            System.out.println("n = " + n + ", " + queryCount + " queries");
+
+            if (n <= maxObjectN) {
+                Integer[] boxed = new Integer[n];
+                for (int i = 0; i < n; i++) {
+                    boxed[i] = keys[i];
+                }
+
+                BST<Integer> bst = BST.fromSorted(boxed);
+                testLookup("BST", bst::contains, queries, expected);
+                EytzingerTree<Integer> eytzinger = new EytzingerTree<>(bst);
+                bst = null;
+                testLookup("EytzingerTree", eytzinger::contains, queries, expected);
+                eytzinger = null;
+
+                AVLTree<Integer, Integer> avl = AVLTree.fromSorted(boxed, boxed);
+                testLookup("AVLTree", avl::contains, queries, expected);
+                avl = null;
+
+                testLookup("Arrays.binarySearch (Integer[])", e -> Arrays.binarySearch(boxed, e) >= 0, queries, expected);
+            }
+
+            testLookup("Arrays.binarySearch (int[])", e -> Arrays.binarySearch(keys, e) >= 0, queries, expected);
+            IntEytzingerTree intEytzinger = new IntEytzingerTree(keys);
+            testLookup("IntEytzingerTree", intEytzinger::contains, queries, expected);
+        }
+    }
+
+    /**
+     * 并行归约的加速比：在 n 个元素的树上统计偶数的个数、求和、收集到 ArrayList，
+     * 线程数从 1 开始每次乘 2，直到 CPU 的个数；parallelStream 使用的是 JDK 公共的线程池，只测一次。
+     */
+    private static void compareParallelAggregation(int n) {
+        Integer[] sorted = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = i;
+        }
+        BST<Integer> bst = BST.fromSorted(sorted);
+        sorted = null;
+        long expectedSum = (long) n * (n - 1) / 2;
+
+        long startTime = System.nanoTime();
+        long sum = 0;
+        int evens = 0;
+        for (int e : bst) {
+            sum += e;
+            if (e % 2 == 0) {
+                evens++;
+            }
+        }
+        double sequential = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        if (sum != expectedSum || evens != (n + 1) / 2) {
+            throw new IllegalArgumentException("Error");
+        }
+        System.out.println("Sequential sum and count, n = " + n + ": " + sequential + "s");
+
+        // 加速比相对于 1 个线程的 parallelReduce，归约时每个元素都要装箱，比上面直接的循环慢
+        double oneThread = 0;
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int p = 1; p <= processors; p = p == processors ? p + 1 : Math.min(2 * p, processors)) {
+            ForkJoinScheduler scheduler = new ForkJoinScheduler(p);
+
+            startTime = System.nanoTime();
+            sum = bst.parallelReduce(scheduler, 0L, e -> (long) e, Long::sum);
+            evens = bst.parallelReduce(scheduler, 0, e -> e % 2 == 0 ? 1 : 0, Integer::sum);
+            double reduce = (System.nanoTime() - startTime) / 1_000_000_000.0;
+            if (sum != expectedSum || evens != (n + 1) / 2) {
+                throw new IllegalArgumentException("Error");
+            }
+
+            startTime = System.nanoTime();
+            ArrayList<Integer> list = bst.parallelCollect(scheduler, ArrayList::new, ArrayList::add, ArrayList::addAll);
+            double collect = (System.nanoTime() - startTime) / 1_000_000_000.0;
+            if (list.size() != n || list.get(n / 2) != n / 2) {
+                throw new IllegalArgumentException("Error");
+            }
+            list = null;
+
+            if (p == 1) {
+                oneThread = reduce;
+            }
+            System.out.println(p + " threads, parallelReduce: " + reduce + "s (" + oneThread / reduce
+                    + "x), parallelCollect: " + collect + "s");
+            scheduler.shutdown();
+        }
+
+        startTime = System.nanoTime();
+        sum = bst.parallelStream().mapToLong(e -> e).sum();
+        evens = (int) bst.parallelStream().filter(e -> e % 2 == 0).count();
+        double stream = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        if (sum != expectedSum || evens != (n + 1) / 2) {
+            throw new IllegalArgumentException("Error");
+        }
+        System.out.println("parallelStream: " + stream + "s");
+
+        // 按顺序添加的树退化成链表，并行的方法不能因为递归太深而栈溢出
+        BST<Integer> chain = new BST<>();
+        for (int i = 0; i < 100_000; i++) {
+            chain.fingerAdd(i);
+        }
+        ForkJoinScheduler scheduler = new ForkJoinScheduler();
+        long chainSum = chain.parallelReduce(scheduler, 0L, e -> (long) e, Long::sum);
+        LongAdder chainCount = new LongAdder();
+        chain.parallelForEach(scheduler, e -> chainCount.increment());
+        ArrayList<Integer> chainList = chain.parallelCollect(scheduler, ArrayList::new, ArrayList::add, ArrayList::addAll);
+        scheduler.shutdown();
+        if (chainSum != 100_000L * 99_999 / 2 || chainCount.sum() != 100_000 || chainList.size() != 100_000
+                || chainList.get(99_999) != 99_999) {
+            throw new IllegalArgumentException("Error");
+        }
+        System.out.println("Sorted-insert tree of 100000 elements: OK");
+    }
+
+    private static double testBatches(Integer[] preload, Integer[][] batches, int method) {
+        BST<Integer> bst = BST.fromSorted(preload);
+        int expected = preload.length;
+        for (Integer[] batch : batches) {
+            expected += batch.length;
+        }
+
+        long startTime = System.nanoTime();
+        for (Integer[] batch : batches) {
+            if (method == 0) {
+                for (Integer e : batch) {
+                    bst.add(e);
+                }
+            } else if (method == 1) {
+                for (Integer e : batch) {
+                    bst.fingerAdd(e);
+                }
+            } else {
+                bst.addAll(batch);
+            }
+        }
+        double time = (System.nanoTime() - startTime) / 1_000_000_000.0;
+
+        if (bst.size() != expected || bst.select(expected / 2) == null) {
+            throw new IllegalArgumentException("Error");
+        }
+        return time;
+    }
+
+    /**
+     * 批量添加：树中先有 n 个随机的元素，再添加若干批元素，每批排好序。
+     * 追加为主的情况下，每批 90% 的元素比已有的都大（依次递增），10% 是随机的；随机的情况下全部是随机的。
+     * 对比逐个 add、逐个 fingerAdd 和 addAll。逐个 add 追加的元素会在最右边接出一条链，所以批次不能太多。
+     */
+    private static void compareBatchInsert(int n, int batchCount, int batchSize) {
+        Random random = new Random();
+        TreeSet<Integer> keys = new TreeSet<>();
+        while (keys.size() < n) {
+            keys.add(random.nextInt(1 << 30));
+        }
+        Integer[] preload = keys.toArray(new Integer[0]);
+
+        for (boolean appendMostly : new boolean[] { true, false }) {
+            TreeSet<Integer> used = new TreeSet<>(keys);
+            Integer[][] batches = new Integer[batchCount][];
+            int next = 1 << 30;
+            for (int b = 0; b < batchCount; b++) {
+                TreeSet<Integer> batch = new TreeSet<>();
+                while (batch.size() < batchSize) {
+                    int key = appendMostly && random.nextInt(10) != 0 ? next++ : random.nextInt(1 << 30);
+                    if (used.add(key)) {
+                        batch.add(key);
+                    }
+                }
+                batches[b] = batch.toArray(new Integer[0]);
+            }
+
+            String name = appendMostly ? "Append-mostly" : "Random";
+            System.out.println(name + ", " + batchCount + " batches of " + batchSize + ", add: "
+                    + testBatches(preload, batches, 0) + "s");
+            System.out.println(name + ", " + batchCount + " batches of " + batchSize + ", fingerAdd: "
+                    + testBatches(preload, batches, 1) + "s");
+            System.out.println(name + ", " + batchCount + " batches of " + batchSize + ", addAll: "
+                    + testBatches(preload, batches, 2) + "s");
+        }
+    }
+
     public static void main(String[] args) {
+        compareBatchInsert(1_000_000, 10, 2000);
+        compareParallelAggregation(10_000_000);
+        compareStaticSearch(10_000_000, 100_000_000, 5_000_000);
+        compareBulkLoad(10_000_000);
+        compareRecursive(1_000_000, 50_000);
+        compareRangeScans(1_000_000, 100);
+
         BST<Integer> bst = new BST<>();
 
         Random random = new Random();
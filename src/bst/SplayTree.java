@@ -0,0 +1,195 @@
+package bst;
+
+/**
+ * SplayTree
+ * 伸展树：每次访问一个元素之后，都通过一系列旋转把它移到根节点（伸展，splay）。
+ *
+ * 伸展树不保证平衡，单次操作最坏 O(n)，但是均摊复杂度是 O(logn)。
+ * 它的好处在于最近访问过的元素都在根附近，访问很集中的时候（比如少数几个热点元素占了大部分访问），
+ * 热点元素几乎总是在树的最上面几层，比平衡树还要快。
+ *
+ * 这里使用自顶向下的伸展：从根向下查找的同时，把路径上比目标小的节点挂到一棵「左树」上，比目标大的挂到一棵「右树」上，
+ * 每次向下走两步时如果是同一个方向（zig-zig）先做一次旋转，最后把找到的节点作为根，左树和右树分别作为它的左右子树。
+ * 整个过程是一个循环，不需要递归，也不需要父指针。
+ *
+ * 添加：先按 e 伸展，根就是 e 的前驱或者后继，把根和它的一棵子树分到新节点的两边；
+ * 删除：先按 e 伸展，e 到了根，再把左子树中最大的元素伸展到左子树的根（它没有右孩子），把右子树接上去。
+ */
+public class SplayTree<E extends Comparable<E>> {
+
+    private class Node {
+        public E e;
+        public Node left, right;
+
+        public Node(E e) {
+            this.e = e;
+            left = null;
+            right = null;
+        }
+    }
+
+    private Node root;
+    private int size;
+    // 伸展时用来挂左树和右树的临时节点
+    private Node header;
+
+    public SplayTree() {
+        root = null;
+        size = 0;
+        header = new Node(null);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 给树添加新元素，已经存在时什么都不做。
+     */
+    public void add(E e) {
+        if (root == null) {
+            root = new Node(e);
+            size++;
+            return;
+        }
+
+        root = splay(root, e);
+        int cmp = e.compareTo(root.e);
+        if (cmp == 0) {
+            return;
+        }
+
+        Node node = new Node(e);
+        if (cmp < 0) {
+            node.left = root.left;
+            node.right = root;
+            root.left = null;
+        } else {
+            node.right = root.right;
+            node.left = root;
+            root.right = null;
+        }
+        root = node;
+        size++;
+    }
+
+    /**
+     * 查找元素 e，找到或者找不到，最后访问的节点都会被移到根。
+     */
+    public boolean contains(E e) {
+        if (root == null) {
+            return false;
+        }
+
+        root = splay(root, e);
+        return e.compareTo(root.e) == 0;
+    }
+
+    /**
+     * 从树中删除元素 e。
+     */
+    public void remove(E e) {
+        if (!contains(e)) {
+            return;
+        }
+
+        if (root.left == null) {
+            root = root.right;
+        } else {
+            Node right = root.right;
+            // 左子树中的元素都比 e 小，按 e 伸展会把最大的元素移到根，它没有右孩子
+            root = splay(root.left, e);
+            root.right = right;
+        }
+        size--;
+    }
+
+    public E minimum() {
+        if (root == null) {
+            throw new IllegalArgumentException("SplayTree is empty.");
+        }
+
+        Node cur = root;
+        while (cur.left != null) {
+            cur = cur.left;
+        }
+        root = splay(root, cur.e);
+        return root.e;
+    }
+
+    public E maximum() {
+        if (root == null) {
+            throw new IllegalArgumentException("SplayTree is empty.");
+        }
+
+        Node cur = root;
+        while (cur.right != null) {
+            cur = cur.right;
+        }
+        root = splay(root, cur.e);
+        return root.e;
+    }
+
+    // 自顶向下地按 e 伸展以 t 为根的树，返回新的根：e 在树中时就是 e 所在的节点，否则是最后访问的节点
+    private Node splay(Node t, E e) {
+        // header.right 是左树的根，header.left 是右树的根；l 是左树中最大的节点，r 是右树中最小的节点
+        header.left = header.right = null;
+        Node l = header;
+        Node r = header;
+
+        while (true) {
+            int cmp = e.compareTo(t.e);
+            if (cmp < 0) {
+                if (t.left == null) {
+                    break;
+                }
+                if (e.compareTo(t.left.e) < 0) {
+                    // zig-zig，先右旋
+                    Node y = t.left;
+                    t.left = y.right;
+                    y.right = t;
+                    t = y;
+                    if (t.left == null) {
+                        break;
+                    }
+                }
+                // t 和它的右子树都比 e 大，挂到右树的最左边
+                r.left = t;
+                r = t;
+                t = t.left;
+            } else if (cmp > 0) {
+                if (t.right == null) {
+                    break;
+                }
+                if (e.compareTo(t.right.e) > 0) {
+                    // zag-zag，先左旋
+                    Node y = t.right;
+                    t.right = y.left;
+                    y.left = t;
+                    t = y;
+                    if (t.right == null) {
+                        break;
+                    }
+                }
+                // t 和它的左子树都比 e 小，挂到左树的最右边
+                l.right = t;
+                l = t;
+                t = t.right;
+            } else {
+                break;
+            }
+        }
+
+        // 组装：t 的左右子树分别接到左树的最右边和右树的最左边，左树和右树成为 t 的左右子树
+        l.right = t.left;
+        r.left = t.right;
+        t.left = header.right;
+        t.right = header.left;
+        header.left = header.right = null;
+        return t;
+    }
+}
@@ -0,0 +1,228 @@
+package bst;
+
+import java.util.Random;
+
+/**
+ * Treap
+ * 树堆：每个节点除了元素之外还有一个随机的优先级，元素满足二分搜索树的性质，优先级满足最大堆的性质。
+ *
+ * 如果按照优先级从大到小的顺序依次插入元素，得到的就是这棵树，而优先级是随机的，相当于按随机的顺序插入，
+ * 所以不管实际插入元素的顺序是什么（比如有序），树的期望高度都是 O(logn)，不需要 AVL 树那样维护高度和旋转。
+ *
+ * 两个基本操作：
+ * split(node, e)：把以 node 为根的树分成小于 e 和大于等于 e 的两棵树；
+ * merge(a, b)：合并两棵树，a 中的元素都比 b 中的小，优先级大的根做新的根，另一棵树和它的一棵子树递归地合并。
+ * 两个操作都只沿着一条路径向下，期望 O(logn)。
+ *
+ * 添加：从根向下找，遇到优先级比新节点小的节点时，把这棵子树按新元素 split，两半分别作为新节点的左右子树；
+ * 删除：找到节点之后，把它的左右子树 merge 起来顶替它的位置。
+ * 另外 split(e) 和 join(other) 把整棵树在 O(logn) 内切开或者拼起来，这是 AVL 树不容易做到的。
+ *
+ * 节点中维护子树的大小，split 之后才能知道两棵树各有多少个元素。
+ */
+public class Treap<E extends Comparable<E>> {
+
+    private class Node {
+        public E e;
+        public int priority;
+        public Node left, right;
+        public int size;
+
+        public Node(E e, int priority) {
+            this.e = e;
+            this.priority = priority;
+            left = null;
+            right = null;
+            size = 1;
+        }
+    }
+
+    // split 的结果：小于 e 的树和大于等于 e 的树
+    private class Pair {
+        public Node left, right;
+    }
+
+    private Node root;
+    private Random random;
+
+    public Treap() {
+        root = null;
+        random = new Random();
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    private int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    /**
+     * 给树添加新元素，已经存在时什么都不做。
+     */
+    public void add(E e) {
+        if (!contains(e)) {
+            root = add(root, new Node(e, random.nextInt()));
+        }
+    }
+
+    // 向以 node 为根的树中插入节点 x（x 中的元素不在树中），返回新的根
+    private Node add(Node node, Node x) {
+        if (node == null) {
+            return x;
+        }
+
+        if (x.priority > node.priority) {
+            Pair parts = split(node, x.e);
+            x.left = parts.left;
+            x.right = parts.right;
+            update(x);
+            return x;
+        }
+
+        if (x.e.compareTo(node.e) < 0) {
+            node.left = add(node.left, x);
+        } else {
+            node.right = add(node.right, x);
+        }
+        update(node);
+        return node;
+    }
+
+    public boolean contains(E e) {
+        Node cur = root;
+        while (cur != null) {
+            int cmp = e.compareTo(cur.e);
+            if (cmp == 0) {
+                return true;
+            }
+            cur = cmp < 0 ? cur.left : cur.right;
+        }
+        return false;
+    }
+
+    /**
+     * 从树中删除元素 e。
+     */
+    public void remove(E e) {
+        if (contains(e)) {
+            root = remove(root, e);
+        }
+    }
+
+    private Node remove(Node node, E e) {
+        int cmp = e.compareTo(node.e);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+
+        if (cmp < 0) {
+            node.left = remove(node.left, e);
+        } else {
+            node.right = remove(node.right, e);
+        }
+        update(node);
+        return node;
+    }
+
+    public E minimum() {
+        if (root == null) {
+            throw new IllegalArgumentException("Treap is empty.");
+        }
+
+        Node cur = root;
+        while (cur.left != null) {
+            cur = cur.left;
+        }
+        return cur.e;
+    }
+
+    public E maximum() {
+        if (root == null) {
+            throw new IllegalArgumentException("Treap is empty.");
+        }
+
+        Node cur = root;
+        while (cur.right != null) {
+            cur = cur.right;
+        }
+        return cur.e;
+    }
+
+    /**
+     * 把树中大于等于 e 的元素切下来，作为一棵新的 Treap 返回，这棵树中只剩下小于 e 的元素，期望 O(logn)。
+     */
+    public Treap<E> split(E e) {
+        Pair parts = split(root, e);
+        root = parts.left;
+
+        Treap<E> ret = new Treap<>();
+        ret.root = parts.right;
+        return ret;
+    }
+
+    /**
+     * 把 other 中的元素都拼接到这棵树中，other 中的元素必须都比这棵树中的大，拼接之后 other 为空，期望 O(logn)。
+     */
+    public void join(Treap<E> other) {
+        if (other == this || other.root == null) {
+            return;
+        }
+        if (root != null && maximum().compareTo(other.minimum()) >= 0) {
+            throw new IllegalArgumentException("Elements of other must be greater than elements of this treap.");
+        }
+
+        root = merge(root, other.root);
+        other.root = null;
+    }
+
+    // 把以 node 为根的树分成小于 e 和大于等于 e 的两棵树
+    private Pair split(Node node, E e) {
+        if (node == null) {
+            return new Pair();
+        }
+
+        Pair parts;
+        if (node.e.compareTo(e) < 0) {
+            // node 和它的左子树都在左边，右子树需要再分
+            parts = split(node.right, e);
+            node.right = parts.left;
+            parts.left = node;
+        } else {
+            parts = split(node.left, e);
+            node.left = parts.right;
+            parts.right = node;
+        }
+        update(node);
+        return parts;
+    }
+
+    // 合并两棵树，a 中的元素都比 b 中的小
+    private Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            update(b);
+            return b;
+        }
+    }
+}
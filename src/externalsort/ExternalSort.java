@@ -0,0 +1,290 @@
+package externalsort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import heap.MaxHeap;
+
+/**
+ * ExternalSort
+ * 外部排序：对放不进内存的文件排序。
+ *
+ * 1. 生成有序的段（run）：按内存上限一块一块地读入数据，每读满一块就交给一个线程排序，排好序后写到一个临时文件里。
+ *    同时最多有 parallelism 块在排序，加上正在读入的一块，内存中最多有 parallelism + 1 块数据；
+ * 2. k 路归并：每个段打开一个游标，游标按当前记录放进一个堆，每次从堆顶取出最小的记录写出，
+ *    然后把这个游标前进一条，用 MaxHeap.replace 放回堆中，只需要一次下沉；
+ *    段太多时（超过 fanIn）先把每 fanIn 个段归并成一个更长的段，再继续，避免同时打开太多文件、每个文件的缓冲区太小。
+ *
+ * 记录的读写由 RecordFormat 决定，比如 TextFormat 是用分隔符隔开的文本。
+ * 对于 long 这样的基本类型数据，使用 LongExternalSort，不需要装箱。
+ *
+ * 所有的读写都经过缓冲，底层使用 Files.newInputStream / newOutputStream，也就是 NIO 的 FileChannel。
+ *
+ * 任何一步出错（读写失败、记录格式错误、被中断）时，关闭所有打开的段，等还在排序的线程结束，再删除所有的临时文件，然后抛出异常。
+ */
+public class ExternalSort<E> {
+
+    // 归并时每个段的游标
+    private class Cursor {
+        private InputStream in;
+        private Path path;
+        private E current;
+
+        public Cursor(Path path) throws IOException {
+            this.path = path;
+            in = new BufferedInputStream(Files.newInputStream(path), bufferSize);
+        }
+
+        // 前进一条记录，到达段的末尾时返回 false
+        public boolean advance() throws IOException {
+            current = format.read(in);
+            return current != null;
+        }
+
+        // 可以重复调用
+        public void close() throws IOException {
+            in.close();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private RecordFormat<E> format;
+    private Comparator<? super E> comparator;
+    private long chunkBytes;
+    private int parallelism;
+    private int fanIn;
+    private int bufferSize;
+    private Path tempDir;
+
+    private long bytesRead;
+    private long bytesWritten;
+    private int runs;
+
+    /**
+     * 构造函数。
+     *
+     * @param format      记录的格式。
+     * @param comparator  记录的比较器，按从小到大排序。
+     * @param memoryLimit 排序时数据最多占用的内存字节数。
+     * @param parallelism 同时排序的块数。
+     * @param tempDir     存放临时文件的目录。
+     */
+    public ExternalSort(RecordFormat<E> format, Comparator<? super E> comparator, long memoryLimit, int parallelism,
+            Path tempDir) {
+        if (memoryLimit <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("memoryLimit and parallelism must be positive.");
+        }
+
+        this.format = format;
+        this.comparator = comparator;
+        this.parallelism = parallelism;
+        this.tempDir = tempDir;
+        chunkBytes = memoryLimit / (parallelism + 1);
+        fanIn = 64;
+        // 归并时同时打开 fanIn 个段，每个段的缓冲区
+        bufferSize = (int) Math.max(8 << 10, Math.min(1 << 20, memoryLimit / (fanIn + 1)));
+    }
+
+    /**
+     * 对 input 排序，结果写入 output。
+     */
+    public void sort(Path input, Path output) throws IOException, InterruptedException {
+        bytesRead = 0;
+        bytesWritten = 0;
+
+        // 创建过的所有临时文件，正常结束时它们已经在归并时删掉了，出错时在这里删除剩下的
+        List<Path> temps = Collections.synchronizedList(new ArrayList<>());
+        try {
+            List<Path> runPaths = createRuns(input, temps);
+            runs = runPaths.size();
+
+            // 多趟归并，每趟把 fanIn 个段归并成一个
+            while (runPaths.size() > fanIn) {
+                List<Path> next = new ArrayList<>();
+                for (int i = 0; i < runPaths.size(); i += fanIn) {
+                    List<Path> group = runPaths.subList(i, Math.min(i + fanIn, runPaths.size()));
+                    Path merged = Files.createTempFile(tempDir, "run", ".tmp");
+                    temps.add(merged);
+                    merge(group, merged);
+                    next.add(merged);
+                }
+                runPaths = next;
+            }
+            merge(runPaths, output);
+        } finally {
+            deleteQuietly(temps);
+        }
+    }
+
+    /**
+     * 上一次排序读取的总字节数，包括归并时读取的临时文件。
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * 上一次排序写入的总字节数，包括临时文件。
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * 上一次排序生成的有序段数。
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    // 读入数据，分块排序后写到临时文件中，返回这些临时文件，创建的临时文件都记到 temps 中
+    private List<Path> createRuns(Path input, List<Path> temps) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        // 正在排序的块数不超过 parallelism
+        Semaphore permits = new Semaphore(parallelism);
+        List<Future<Path>> futures = new ArrayList<>();
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(input), bufferSize)) {
+            bytesRead += Files.size(input);
+
+            E e = format.read(in);
+            while (e != null) {
+                List<E> chunk = new ArrayList<>();
+                long bytes = 0;
+                while (e != null && bytes < chunkBytes) {
+                    chunk.add(e);
+                    // 再加上 ArrayList 中一个引用的大小
+                    bytes += format.sizeOf(e) + 8;
+                    e = format.read(in);
+                }
+
+                permits.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        return spill(chunk, temps);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<Path> runPaths = new ArrayList<>();
+            for (Future<Path> future : futures) {
+                runPaths.add(future.get());
+            }
+            return runPaths;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        } finally {
+            shutdownAndWait(executor);
+        }
+    }
+
+    // 对一块数据排序，写到一个临时文件中
+    private Path spill(List<E> chunk, List<Path> temps) throws IOException {
+        chunk.sort(comparator);
+
+        Path path = Files.createTempFile(tempDir, "run", ".tmp");
+        temps.add(path);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), bufferSize)) {
+            for (E e : chunk) {
+                format.write(out, e);
+            }
+        }
+
+        long size = Files.size(path);
+        synchronized (this) {
+            bytesWritten += size;
+        }
+        return path;
+    }
+
+    // 将若干个有序段归并到 output 中，归并完成后删除这些段
+    private void merge(List<Path> runPaths, Path output) throws IOException {
+        // 最大堆的「最大」是相对于比较器而言的，反过来比较，堆顶就是当前记录最小的游标
+        MaxHeap<Cursor> heap = new MaxHeap<>(runPaths.size(), (a, b) -> comparator.compare(b.current, a.current));
+        // 打开过的所有游标，出错时在 finally 中关闭
+        List<Cursor> cursors = new ArrayList<>(runPaths.size());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), bufferSize)) {
+            for (Path path : runPaths) {
+                bytesRead += Files.size(path);
+                Cursor cursor = new Cursor(path);
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                } else {
+                    cursor.close();
+                }
+            }
+
+            while (!heap.isEmpty()) {
+                Cursor cursor = heap.findMax();
+                format.write(out, cursor.current);
+                if (cursor.advance()) {
+                    heap.replace(cursor);
+                } else {
+                    heap.extractMax();
+                    cursor.close();
+                }
+            }
+        } finally {
+            for (Cursor cursor : cursors) {
+                try {
+                    cursor.close();
+                } catch (IOException e) {
+                    // 不掩盖原来的异常，没删掉的临时文件留给 sort 最后统一删除
+                }
+            }
+        }
+        bytesWritten += Files.size(output);
+    }
+
+    // 删除临时文件，忽略删除时的错误，不掩盖排序本身抛出的异常
+    static void deleteQuietly(List<Path> paths) {
+        synchronized (paths) {
+            for (Path path : paths) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    // 删不掉就留在临时目录中
+                }
+            }
+        }
+    }
+
+    // 关闭线程池并等待所有任务结束。出错时还在排序的任务会被中断，要等它们结束之后才能删除它们创建的临时文件
+    static void shutdownAndWait(ExecutorService executor) {
+        executor.shutdownNow();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package externalsort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import heap.MaxHeap;
+
+/**
+ * LongExternalSort
+ * 对由 long 组成的二进制文件（每个数 8 个字节，大端序，和 DataOutputStream.writeLong 一致）做外部排序，从小到大。
+ *
+ * 流程和 ExternalSort 一样，分块排序再 k 路归并，区别在于：
+ * 1. 每一块数据是一个 long[]，不装箱，每次 sort 最多分配 parallelism + 1 个这样的数组，排序完写出后放回池中给下一块使用，
+ *    所以内存的上限是精确的，sort 返回之后这些数组就可以被回收；
+ * 2. 直接使用 FileChannel 和 ByteBuffer 读写，一次读写一整个缓冲区，通过 asLongBuffer 批量地在 ByteBuffer 和 long[] 之间复制。
+ *
+ * 和 ExternalSort 一样，排序出错时会关闭所有打开的段并删除所有的临时文件。
+ */
+public class LongExternalSort {
+
+    // 归并时每个段的游标
+    private static class Cursor {
+        private FileChannel channel;
+        private ByteBuffer buffer;
+        private Path path;
+        private long current;
+
+        public Cursor(Path path, int bufferSize) throws IOException {
+            this.path = path;
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            buffer = ByteBuffer.allocate(bufferSize);
+            buffer.flip();
+        }
+
+        // 前进一个数，到达段的末尾时返回 false
+        public boolean advance() throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                buffer.compact();
+                while (buffer.position() < Long.BYTES && channel.read(buffer) != -1) {
+                }
+                buffer.flip();
+                if (buffer.remaining() < Long.BYTES) {
+                    return false;
+                }
+            }
+            current = buffer.getLong();
+            return true;
+        }
+
+        // 可以重复调用
+        public void close() throws IOException {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private int chunkLength;
+    private int parallelism;
+    private int fanIn;
+    private int bufferSize;
+    private Path tempDir;
+
+    private long bytesRead;
+    private long bytesWritten;
+    private int runs;
+
+    /**
+     * 构造函数。
+     *
+     * @param memoryLimit 排序时数据最多占用的内存字节数。
+     * @param parallelism 同时排序的块数。
+     * @param tempDir     存放临时文件的目录。
+     */
+    public LongExternalSort(long memoryLimit, int parallelism, Path tempDir) {
+        if (memoryLimit <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("memoryLimit and parallelism must be positive.");
+        }
+
+        this.parallelism = parallelism;
+        this.tempDir = tempDir;
+        fanIn = 64;
+        bufferSize = (int) Math.max(8 << 10, Math.min(1 << 20, memoryLimit / (fanIn + 1))) & ~(Long.BYTES - 1);
+
+        chunkLength = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, memoryLimit / (parallelism + 1) / Long.BYTES));
+    }
+
+    /**
+     * 对 input 排序，结果写入 output。
+     */
+    public void sort(Path input, Path output) throws IOException, InterruptedException {
+        if (Files.size(input) % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Input size must be a multiple of 8.");
+        }
+        bytesRead = 0;
+        bytesWritten = 0;
+
+        // 创建过的所有临时文件，正常结束时它们已经在归并时删掉了，出错时在这里删除剩下的
+        List<Path> temps = Collections.synchronizedList(new ArrayList<>());
+        try {
+            List<Path> runPaths = createRuns(input, temps);
+            runs = runPaths.size();
+
+            while (runPaths.size() > fanIn) {
+                List<Path> next = new ArrayList<>();
+                for (int i = 0; i < runPaths.size(); i += fanIn) {
+                    List<Path> group = runPaths.subList(i, Math.min(i + fanIn, runPaths.size()));
+                    Path merged = Files.createTempFile(tempDir, "run", ".tmp");
+                    temps.add(merged);
+                    merge(group, merged);
+                    next.add(merged);
+                }
+                runPaths = next;
+            }
+            merge(runPaths, output);
+        } finally {
+            ExternalSort.deleteQuietly(temps);
+        }
+    }
+
+    /**
+     * 上一次排序读取的总字节数，包括归并时读取的临时文件。
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * 上一次排序写入的总字节数，包括临时文件。
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * 上一次排序生成的有序段数。
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    private List<Path> createRuns(Path input, List<Path> temps) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        // 空闲的数组，读入时从这里取，排序写出后放回；池中没有空闲的数组并且分配的还不到 parallelism + 1 个时才分配
+        BlockingQueue<long[]> free = new ArrayBlockingQueue<>(parallelism + 1);
+        int allocated = 0;
+        List<Future<Path>> futures = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            long remaining = channel.size() / Long.BYTES;
+            bytesRead += channel.size();
+
+            while (remaining > 0) {
+                long[] chunk = free.poll();
+                if (chunk == null) {
+                    if (allocated < parallelism + 1) {
+                        chunk = new long[(int) Math.min(chunkLength, remaining)];
+                        allocated++;
+                    } else {
+                        chunk = free.take();
+                    }
+                }
+                int length = (int) Math.min(chunk.length, remaining);
+                readFully(channel, buffer, chunk, length);
+                remaining -= length;
+
+                long[] c = chunk;
+                futures.add(executor.submit(() -> {
+                    try {
+                        return spill(c, length, temps);
+                    } finally {
+                        free.add(c);
+                    }
+                }));
+            }
+
+            List<Path> runPaths = new ArrayList<>();
+            for (Future<Path> future : futures) {
+                runPaths.add(future.get());
+            }
+            return runPaths;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        } finally {
+            ExternalSort.shutdownAndWait(executor);
+        }
+    }
+
+    // 从 channel 中读入 length 个数到 chunk 中
+    private void readFully(FileChannel channel, ByteBuffer buffer, long[] chunk, int length) throws IOException {
+        int filled = 0;
+        while (filled < length) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (long) (length - filled) * Long.BYTES));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) == -1) {
+                    throw new IOException("Unexpected end of file.");
+                }
+            }
+            buffer.flip();
+            int n = buffer.remaining() / Long.BYTES;
+            buffer.asLongBuffer().get(chunk, filled, n);
+            filled += n;
+        }
+    }
+
+    private Path spill(long[] chunk, int length, List<Path> temps) throws IOException {
+        Arrays.sort(chunk, 0, length);
+
+        Path path = Files.createTempFile(tempDir, "run", ".tmp");
+        temps.add(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            int written = 0;
+            while (written < length) {
+                int n = Math.min(buffer.capacity() / Long.BYTES, length - written);
+                buffer.clear();
+                buffer.asLongBuffer().put(chunk, written, n);
+                buffer.limit(n * Long.BYTES);
+                writeFully(channel, buffer);
+                written += n;
+            }
+        }
+
+        synchronized (this) {
+            bytesWritten += (long) length * Long.BYTES;
+        }
+        return path;
+    }
+
+    private void merge(List<Path> runPaths, Path output) throws IOException {
+        // 反过来比较，堆顶就是当前数最小的游标
+        MaxHeap<Cursor> heap = new MaxHeap<>(runPaths.size(), (a, b) -> Long.compare(b.current, a.current));
+        // 打开过的所有游标，出错时在 finally 中关闭
+        List<Cursor> cursors = new ArrayList<>(runPaths.size());
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path path : runPaths) {
+                bytesRead += Files.size(path);
+                Cursor cursor = new Cursor(path, bufferSize);
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                } else {
+                    cursor.close();
+                }
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            while (!heap.isEmpty()) {
+                Cursor cursor = heap.findMax();
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    writeFully(channel, buffer);
+                    buffer.clear();
+                }
+                buffer.putLong(cursor.current);
+
+                if (cursor.advance()) {
+                    heap.replace(cursor);
+                } else {
+                    heap.extractMax();
+                    cursor.close();
+                }
+            }
+            buffer.flip();
+            writeFully(channel, buffer);
+            bytesWritten += channel.size();
+        } finally {
+            for (Cursor cursor : cursors) {
+                try {
+                    cursor.close();
+                } catch (IOException e) {
+                    // 不掩盖原来的异常，没删掉的临时文件留给 sort 最后统一删除
+                }
+            }
+        }
+    }
+
+    private void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package externalsort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Main
+ *
+ * 生成一个大小是堆内存 10 倍的随机 long 文件，用 LongExternalSort 排序，报告读写的带宽；再对一个文本文件用 ExternalSort 排序。
+ * 数据量由 -Xmx 决定，比如 -Xmx256m 会生成 2.5GB 的文件，运行前确认临时目录有足够的空间（大约是数据量的 3 倍）。
+ * 第一个运行参数可以指定临时目录。
+ */
+public class Main {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path tempDir = args.length > 0 ? Path.of(args[0]) : Path.of(System.getProperty("java.io.tmpdir"));
+        long maxMemory = Runtime.getRuntime().maxMemory();
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        testLongs(tempDir, maxMemory * 10, maxMemory / 4, cores);
+        testText(tempDir, maxMemory, maxMemory / 4, cores);
+    }
+
+    private static void testLongs(Path tempDir, long dataBytes, long memoryLimit, int parallelism)
+            throws IOException, InterruptedException {
+        long n = dataBytes / Long.BYTES;
+        Path input = Files.createTempFile(tempDir, "input", ".bin");
+        Path output = Files.createTempFile(tempDir, "output", ".bin");
+
+        try {
+            long startTime = System.nanoTime();
+            Random random = new Random();
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(input), 1 << 20))) {
+                for (long i = 0; i < n; i++) {
+                    out.writeLong(random.nextLong());
+                }
+            }
+            double time = (System.nanoTime() - startTime) / 1_000_000_000.0;
+            System.out.println("Generate " + n + " longs (" + dataBytes / (1 << 20) + "MB), time: " + time + "s");
+
+            LongExternalSort sorter = new LongExternalSort(memoryLimit, parallelism, tempDir);
+            startTime = System.nanoTime();
+            sorter.sort(input, output);
+            time = (System.nanoTime() - startTime) / 1_000_000_000.0;
+            System.out.println("LongExternalSort, runs: " + sorter.getRuns() + ", time: " + time + "s");
+            printBandwidth(sorter.getBytesRead(), sorter.getBytesWritten(), time);
+
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(output), 1 << 20))) {
+                long prev = Long.MIN_VALUE;
+                for (long i = 0; i < n; i++) {
+                    long cur = in.readLong();
+                    if (cur < prev) {
+                        throw new IllegalArgumentException("Error");
+                    }
+                    prev = cur;
+                }
+                if (in.read() != -1) {
+                    throw new IllegalArgumentException("Error");
+                }
+            }
+            System.out.println("Test LongExternalSort completed.");
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static void testText(Path tempDir, long dataBytes, long memoryLimit, int parallelism)
+            throws IOException, InterruptedException {
+        Path input = Files.createTempFile(tempDir, "input", ".txt");
+        Path output = Files.createTempFile(tempDir, "output", ".txt");
+        TextFormat format = new TextFormat();
+
+        try {
+            Random random = new Random();
+            long n = 0;
+            try (BufferedOutputStream out = new BufferedOutputStream(Files.newOutputStream(input), 1 << 20)) {
+                StringBuilder sb = new StringBuilder();
+                for (long bytes = 0; bytes < dataBytes; n++) {
+                    sb.setLength(0);
+                    int len = 1 + random.nextInt(16);
+                    for (int i = 0; i < len; i++) {
+                        sb.append((char) ('a' + random.nextInt(26)));
+                    }
+                    format.write(out, sb.toString());
+                    bytes += len + 1;
+                }
+            }
+
+            ExternalSort<String> sorter = new ExternalSort<>(format, String::compareTo, memoryLimit, parallelism,
+                    tempDir);
+            long startTime = System.nanoTime();
+            sorter.sort(input, output);
+            double time = (System.nanoTime() - startTime) / 1_000_000_000.0;
+            System.out.println("ExternalSort (" + n + " lines), runs: " + sorter.getRuns() + ", time: " + time + "s");
+            printBandwidth(sorter.getBytesRead(), sorter.getBytesWritten(), time);
+
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(output), 1 << 20)) {
+                String prev = "";
+                long count = 0;
+                String cur;
+                while ((cur = format.read(in)) != null) {
+                    if (cur.compareTo(prev) < 0) {
+                        throw new IllegalArgumentException("Error");
+                    }
+                    prev = cur;
+                    count++;
+                }
+                if (count != n) {
+                    throw new IllegalArgumentException("Error");
+                }
+            }
+            System.out.println("Test ExternalSort completed.");
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static void printBandwidth(long bytesRead, long bytesWritten, double time) {
+        System.out.println("Read: " + bytesRead / (1 << 20) + "MB, " + bytesRead / (1 << 20) / time + "MB/s");
+        System.out.println("Write: " + bytesWritten / (1 << 20) + "MB, " + bytesWritten / (1 << 20) / time + "MB/s");
+    }
+}
@@ -0,0 +1,24 @@
+package externalsort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * RecordFormat
+ * 外部排序中记录在文件里的格式：如何从流中读出一条记录、如何写入一条记录，以及一条记录在内存中大约占多少字节。
+ */
+public interface RecordFormat<E> {
+
+    /**
+     * 读出下一条记录，已经读到文件末尾时返回 null。
+     */
+    E read(InputStream in) throws IOException;
+
+    void write(OutputStream out, E e) throws IOException;
+
+    /**
+     * 记录在内存中大约占用的字节数，用来控制每一块数据的大小。
+     */
+    long sizeOf(E e);
+}
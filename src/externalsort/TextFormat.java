@@ -0,0 +1,64 @@
+package externalsort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * TextFormat
+ * 用分隔符（比如换行符）隔开的 UTF-8 文本记录。最后一条记录后面可以没有分隔符。
+ *
+ * 分隔符只能是一个 ASCII 字符，UTF-8 的多字节字符中每个字节都不小于 0x80，所以按字节查找分隔符不会切断一个字符。
+ */
+public class TextFormat implements RecordFormat<String> {
+
+    private byte delimiter;
+    // 读取一条记录时用的缓冲区，不够时扩容，所以同一个 TextFormat 不能同时被多个线程用来读取
+    private byte[] buffer;
+
+    public TextFormat(char delimiter) {
+        if (delimiter >= 0x80) {
+            throw new IllegalArgumentException("Delimiter must be an ASCII character.");
+        }
+        this.delimiter = (byte) delimiter;
+        buffer = new byte[256];
+    }
+
+    /**
+     * 以换行符分隔。
+     */
+    public TextFormat() {
+        this('\n');
+    }
+
+    @Override
+    public String read(InputStream in) throws IOException {
+        int len = 0;
+        int b;
+        while ((b = in.read()) != -1 && b != delimiter) {
+            if (len == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[len++] = (byte) b;
+        }
+
+        if (b == -1 && len == 0) {
+            return null;
+        }
+        return new String(buffer, 0, len, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void write(OutputStream out, String e) throws IOException {
+        out.write(e.getBytes(StandardCharsets.UTF_8));
+        out.write(delimiter);
+    }
+
+    // String 对象头、内部数组的对象头，再加上字符本身，粗略估计
+    @Override
+    public long sizeOf(String e) {
+        return 56 + 2L * e.length();
+    }
+}
@@ -0,0 +1,180 @@
+package forkjoin;
+
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import queue.LinkedListQueue;
+import queue.WorkStealingDeque;
+
+/**
+ * ForkJoinScheduler
+ * 一个最小的 fork/join 调度器。
+ *
+ * 每个工作线程拥有一个 WorkStealingDeque：
+ * fork 出来的子任务压入自己队列的底部，自己也总是从底部取任务，这样执行顺序和递归的深度优先顺序一致；
+ * 自己的队列空了，就随机挑一个其他工作线程，从它队列的顶部窃取任务，顶部的任务是最早 fork 的，通常也是最大的，窃取一次能做很多工作；
+ * 外部线程提交的任务放在一个公共的提交队列中。
+ *
+ * join 的时候工作线程不会阻塞，而是一边执行其他任务一边等待，所以递归很深的任务也不会把线程耗尽。
+ */
+public class ForkJoinScheduler {
+
+    // 空闲的工作线程自旋这么多次还拿不到任务，就短暂休眠
+    private static final int SPINS_BEFORE_PARK = 64;
+    private static final long PARK_NANOS = 50_000;
+
+    /**
+     * 工作线程。
+     */
+    static class Worker extends Thread {
+        private ForkJoinScheduler scheduler;
+        private WorkStealingDeque<Task<?>> deque;
+        private int index;
+        private Random random;
+
+        Worker(ForkJoinScheduler scheduler, int index) {
+            super("forkjoin-worker-" + index);
+            this.scheduler = scheduler;
+            this.index = index;
+            deque = new WorkStealingDeque<>();
+            random = new Random(index);
+            setDaemon(true);
+        }
+
+        void push(Task<?> task) {
+            deque.push(task);
+        }
+
+        // 找一个可以执行的任务：先看自己的队列，再窃取其他线程的，最后看提交队列
+        private Task<?> findTask() {
+            Task<?> task = deque.pop();
+            if (task != null) {
+                return task;
+            }
+
+            Worker[] workers = scheduler.workers;
+            if (workers.length > 1) {
+                int start = random.nextInt(workers.length);
+                for (int i = 0; i < workers.length; i++) {
+                    Worker victim = workers[(start + i) % workers.length];
+                    if (victim != this) {
+                        task = victim.deque.steal();
+                        if (task != null) {
+                            return task;
+                        }
+                    }
+                }
+            }
+
+            return scheduler.pollSubmission();
+        }
+
+        // 一边执行其他任务一边等待 target 完成
+        void helpUntilDone(Task<?> target) {
+            int spins = 0;
+            while (!target.isDone()) {
+                Task<?> task = findTask();
+                if (task != null) {
+                    task.run();
+                    spins = 0;
+                } else if (++spins < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int spins = 0;
+            while (!scheduler.shutdown) {
+                Task<?> task = findTask();
+                if (task != null) {
+                    task.run();
+                    spins = 0;
+                } else if (++spins < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+        }
+    }
+
+    private Worker[] workers;
+    private LinkedListQueue<Task<?>> submissions;
+    // 提交队列中任务的个数，工作线程不加锁就能知道提交队列是否为空
+    private volatile int submissionCount;
+    private volatile boolean shutdown;
+
+    /**
+     * 构造函数。
+     *
+     * @param parallelism 工作线程的个数。
+     */
+    public ForkJoinScheduler(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive.");
+        }
+
+        submissions = new LinkedListQueue<>();
+        submissionCount = 0;
+        shutdown = false;
+        workers = new Worker[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            workers[i] = new Worker(this, i);
+        }
+        for (Worker worker : workers) {
+            worker.start();
+        }
+    }
+
+    public ForkJoinScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getParallelism() {
+        return workers.length;
+    }
+
+    /**
+     * 提交一个任务并等待它的结果。如果当前线程就是工作线程，直接执行。
+     */
+    public <R> R invoke(Task<R> task) {
+        if (shutdown) {
+            throw new IllegalArgumentException("Scheduler is shut down.");
+        }
+
+        if (Thread.currentThread() instanceof Worker) {
+            task.run();
+        } else {
+            synchronized (submissions) {
+                submissions.enqueue(task);
+                submissionCount++;
+            }
+        }
+        return task.join();
+    }
+
+    /**
+     * 关闭调度器，工作线程执行完手头的任务后退出。
+     */
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    private Task<?> pollSubmission() {
+        if (submissionCount == 0) {
+            return null;
+        }
+
+        synchronized (submissions) {
+            if (submissions.isEmpty()) {
+                return null;
+            }
+            submissionCount--;
+            return submissions.dequeue();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package forkjoin;
+
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+import bst.BST;
+import linkedlist.Sum;
+import segmenttree.SegmentTree;
+
+/**
+ * Main
+ *
+ * 测试并行算法在 1 到 N 个线程上的加速比：
+ * 数组求和（linkedlist.Sum）、线段树的创建（segmenttree.SegmentTree）、二分搜索树的遍历（bst.BST）。
+ */
+public class Main {
+
+    public static void main(String[] args) {
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        Random random = new Random();
+
+        int n = 50_000_000;
+        int[] nums = new int[n];
+        int expectedSum = 0;
+        for (int i = 0; i < n; i++) {
+            nums[i] = random.nextInt(100);
+            expectedSum += nums[i];
+        }
+
+        int m = 4_000_000;
+        Integer[] segData = new Integer[m];
+        for (int i = 0; i < m; i++) {
+            segData[i] = random.nextInt(100);
+        }
+
+        int k = 1_000_000;
+        BST<Integer> bst = new BST<>();
+        for (int i = 0; i < k; i++) {
+            bst.add(random.nextInt(Integer.MAX_VALUE));
+        }
+
+        // 线程数依次为 1, 2, 4, ... , cores
+        for (int p = 1;; p = Math.min(p * 2, cores)) {
+            ForkJoinScheduler scheduler = new ForkJoinScheduler(p);
+
+            double time1 = testSum(scheduler, nums, expectedSum);
+            double time2 = testSegmentTree(scheduler, segData);
+            double time3 = testBST(scheduler, bst);
+            System.out.println("Threads: " + p + ", Sum: " + time1 + "s, SegmentTree: " + time2 + "s, BST: " + time3 + "s");
+
+            scheduler.shutdown();
+            if (p == cores) {
+                break;
+            }
+        }
+    }
+
+    private static double testSum(ForkJoinScheduler scheduler, int[] nums, int expectedSum) {
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < 10; i++) {
+            if (Sum.sum(nums, scheduler) != expectedSum) {
+                throw new IllegalArgumentException("Error");
+            }
+        }
+
+        long endTime = System.nanoTime();
+
+        return (endTime - startTime) / 1_000_000_000.0;
+    }
+
+    private static double testSegmentTree(ForkJoinScheduler scheduler, Integer[] segData) {
+        long startTime = System.nanoTime();
+
+        SegmentTree<Integer> segTree = new SegmentTree<>(segData, (a, b) -> a + b, scheduler);
+
+        long endTime = System.nanoTime();
+
+        int expected = 0;
+        for (int num : segData) {
+            expected += num;
+        }
+        if (segTree.query(0, segData.length - 1) != expected) {
+            throw new IllegalArgumentException("Error");
+        }
+
+        return (endTime - startTime) / 1_000_000_000.0;
+    }
+
+    private static double testBST(ForkJoinScheduler scheduler, BST<Integer> bst) {
+        long startTime = System.nanoTime();
+
+        LongAdder count = new LongAdder();
+        for (int i = 0; i < 10; i++) {
+            bst.parallelForEach(scheduler, e -> count.increment());
+        }
+
+        long endTime = System.nanoTime();
+
+        if (count.sum() != 10L * bst.size()) {
+            throw new IllegalArgumentException("Error");
+        }
+
+        return (endTime - startTime) / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,114 @@
+package forkjoin;
+
+/**
+ * Task
+ * 在 ForkJoinScheduler 上运行的任务。子类实现 compute，在 compute 中可以 fork 出子任务，再 join 等待子任务的结果。
+ *
+ * 比如数组求和：
+ * protected Integer compute() {
+ *     if (r - l < THRESHOLD) {
+ *         return 顺序求和;
+ *     }
+ *     SumTask left = new SumTask(arr, l, mid);
+ *     left.fork();
+ *     int rightSum = new SumTask(arr, mid, r).compute();
+ *     return left.join() + rightSum;
+ * }
+ */
+public abstract class Task<R> {
+
+    private volatile boolean done;
+    // 是否有非工作线程在等待这个任务，只有这时候完成任务才需要 notifyAll
+    private volatile boolean waiting;
+    private R result;
+    private Throwable exception;
+
+    protected Task() {
+        done = false;
+        waiting = false;
+        result = null;
+        exception = null;
+    }
+
+    /**
+     * 任务的计算逻辑。
+     */
+    protected abstract R compute();
+
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * 将任务压入当前工作线程的双端队列，稍后由自己或者其他工作线程执行。只能在 ForkJoinScheduler 的工作线程中调用。
+     */
+    public final Task<R> fork() {
+        Thread current = Thread.currentThread();
+        if (!(current instanceof ForkJoinScheduler.Worker)) {
+            throw new IllegalArgumentException("fork() must be called inside a ForkJoinScheduler.");
+        }
+
+        ((ForkJoinScheduler.Worker) current).push(this);
+        return this;
+    }
+
+    /**
+     * 等待任务完成并返回结果。
+     * 在工作线程中等待时不会阻塞，而是先执行自己队列里的任务，队列空了就去窃取别的线程的任务。
+     * 任务抛出的 RuntimeException 和 Error 原样抛出，其他异常包装成 RuntimeException。
+     */
+    public final R join() {
+        if (!done) {
+            Thread current = Thread.currentThread();
+            if (current instanceof ForkJoinScheduler.Worker) {
+                ((ForkJoinScheduler.Worker) current).helpUntilDone(this);
+            } else {
+                waitUntilDone();
+            }
+        }
+
+        if (exception instanceof RuntimeException) {
+            throw (RuntimeException) exception;
+        }
+        if (exception instanceof Error) {
+            throw (Error) exception;
+        }
+        if (exception != null) {
+            // compute 不声明受检异常，只有通过泛型等方式绕过编译器检查时才会到这里
+            throw new RuntimeException(exception);
+        }
+        return result;
+    }
+
+    /**
+     * 执行任务，同一个任务只会被执行一次：被窃取的任务已经从拥有者的队列中拿走了，拥有者不会再拿到它。
+     */
+    final void run() {
+        try {
+            result = compute();
+        } catch (Throwable t) {
+            exception = t;
+        }
+
+        done = true;
+        if (waiting) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    private void waitUntilDone() {
+        waiting = true;
+        synchronized (this) {
+            while (!done) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+}
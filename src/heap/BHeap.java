@@ -0,0 +1,251 @@
+package heap;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * BHeap
+ * 按块存放子树的最大堆（B-heap），对缓存更友好，方法和 MaxHeap 一样。
+ *
+ * 普通的二叉堆中节点 i 的孩子在 2i+1 和 2i+2，堆很大的时候，下沉每往下走一层，访问的位置就离得更远，
+ * 从第十几层开始几乎每一层都是一次缓存缺失（再往下还有 TLB 缺失）。
+ *
+ * B-heap 把树切成高度为 h 的小完全二叉树（块），每块有 2^h - 1 个节点，连续地存放在 2^h 个位置中（最后一个位置空着，这样可以用移位计算）：
+ * 1. 位置 p 属于第 b = p >> h 块，块内偏移 o = p & (2^h - 1)，块内按层序存放，块内孩子的偏移是 2o+1 和 2o+2；
+ * 2. 块内最下面一层有 2^(h-1) 个节点，每个有两个孩子，位于别的块的根上，所以每块有 2^h 个孩子块，
+ *    块本身组成一棵 2^h 叉树，也按层序存放：第 b 块的孩子块是 b * 2^h + 1 ... b * 2^h + 2^h。
+ * 下沉时连续 h 层都在同一块里，块的大小取一个缓存行（h = 4，16 个引用）或者一页（h = 10），缺失的次数就少了 h 倍。
+ *
+ * 堆中的 n 个元素占据（跳过空位之后的）前 n 个位置。每个节点的父亲都在它之前，所以这仍然是一棵树，只是不一定是完全二叉树，
+ * 高度最多是 h * 块的层数，依然是 O(logn) 的。
+ * 添加元素时放在下一个位置再上浮，取出最大元素时把最后一个位置的元素放到根再下沉，和 MaxHeap 一样。
+ */
+public class BHeap<E> {
+
+    private Object[] data;
+    // 下一个元素要放的位置
+    private int end;
+    private int size;
+    private Comparator<? super E> comparator;
+
+    private int h;
+    private int mask;
+    // 块内最下面一层第一个节点的偏移
+    private int firstLeaf;
+
+    /**
+     * 构造函数。
+     *
+     * @param blockHeight 每块的高度 h，在 2 到 16 之间。
+     * @param capacity    初始容量。
+     * @param comparator  比较器，比较器认为最大的元素在堆顶。
+     */
+    public BHeap(int blockHeight, int capacity, Comparator<? super E> comparator) {
+        if (blockHeight < 2 || blockHeight > 16) {
+            throw new IllegalArgumentException("Block height must be between 2 and 16.");
+        }
+
+        h = blockHeight;
+        mask = (1 << h) - 1;
+        firstLeaf = (1 << (h - 1)) - 1;
+        this.comparator = comparator;
+        data = new Object[Math.max(1 << h, position(capacity))];
+        end = 0;
+        size = 0;
+    }
+
+    /**
+     * 每块一个缓存行，64 字节可以放下 16 个压缩的引用。
+     */
+    public BHeap(int capacity, Comparator<? super E> comparator) {
+        this(4, capacity, comparator);
+    }
+
+    public BHeap(Comparator<? super E> comparator) {
+        this(16, comparator);
+    }
+
+    /**
+     * 按照自然顺序比较的最大堆，元素必须实现 Comparable。
+     */
+    public BHeap(int capacity) {
+        this(capacity, MaxHeap.naturalOrder());
+    }
+
+    public BHeap() {
+        this(MaxHeap.<E>naturalOrder());
+    }
+
+    /**
+     * 将任意一个数组生成为一个最大堆，O(n)。
+     * 每个节点的孩子都在它之后，所以从最后一个位置往前依次下沉即可。
+     */
+    public BHeap(int blockHeight, E[] arr, Comparator<? super E> comparator) {
+        this(blockHeight, arr.length, comparator);
+        for (E e : arr) {
+            data[end] = e;
+            end = next(end);
+        }
+        size = arr.length;
+
+        for (int p = end - 1; p >= 0; p--) {
+            if ((p & mask) != mask) {
+                siftDown(p);
+            }
+        }
+    }
+
+    public BHeap(E[] arr, Comparator<? super E> comparator) {
+        this(4, arr, comparator);
+    }
+
+    public BHeap(E[] arr) {
+        this(arr, MaxHeap.naturalOrder());
+    }
+
+    /**
+     * 返回堆中元素个数。
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 返回一个布尔值，表示堆是否为空。
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 每块的高度。
+     */
+    public int getBlockHeight() {
+        return h;
+    }
+
+    // 第 n 个节点（从 0 开始）的位置
+    private int position(int n) {
+        return ((n / mask) << h) + n % mask;
+    }
+
+    // p 之后的下一个位置，跳过每块最后的空位
+    private int next(int p) {
+        p++;
+        return (p & mask) == mask ? p + 1 : p;
+    }
+
+    private int prev(int p) {
+        p--;
+        return (p & mask) == mask ? p - 1 : p;
+    }
+
+    private int parent(int p) {
+        int o = p & mask;
+        if (o > 0) {
+            return (p - o) + (o - 1) / 2;
+        }
+
+        // 块的根，父亲在父块的最下面一层
+        int c = (p >>> h) - 1;
+        return ((c >>> h) << h) + firstLeaf + ((c & mask) >> 1);
+    }
+
+    private int leftChild(int p) {
+        int o = p & mask;
+        if (o < firstLeaf) {
+            return p + o + 1;
+        }
+
+        // 块内最下面一层，孩子是孩子块的根，位置可能超出 int 的范围，这时孩子一定不存在
+        long b = p >>> h;
+        long c = ((b << h) + 1 + 2 * (o - firstLeaf)) << h;
+        return c < end ? (int) c : Integer.MAX_VALUE;
+    }
+
+    /**
+     * 向堆中添加元素
+     */
+    public void add(E e) {
+        if (end == data.length) {
+            data = Arrays.copyOf(data, (int) Math.min(Integer.MAX_VALUE - 8, 2L * data.length));
+        }
+
+        int p = end;
+        end = next(end);
+        size++;
+        siftUp(p, e);
+    }
+
+    /**
+     * 看堆中的最大元素，不取出。
+     */
+    @SuppressWarnings("unchecked")
+    public E findMax() {
+        if (size == 0) {
+            throw new IllegalArgumentException("Can not findMax when heap is empty.");
+        }
+        return (E) data[0];
+    }
+
+    /**
+     * 取出堆中最大元素。
+     */
+    public E extractMax() {
+        E ret = findMax();
+
+        end = prev(end);
+        size--;
+        if (size > 0) {
+            data[0] = data[end];
+            data[end] = null;
+            siftDown(0);
+        } else {
+            data[0] = null;
+        }
+        return ret;
+    }
+
+    /**
+     * 取出堆中最大的元素，并且替换成元素 e，只需要一次下沉。
+     */
+    public E replace(E e) {
+        E ret = findMax();
+        data[0] = e;
+        siftDown(0);
+        return ret;
+    }
+
+    // 从空位 p 开始上浮，把 e 放到最终的位置
+    @SuppressWarnings("unchecked")
+    private void siftUp(int p, E e) {
+        while (p > 0) {
+            int q = parent(p);
+            if (comparator.compare((E) data[q], e) >= 0) {
+                break;
+            }
+            data[p] = data[q];
+            p = q;
+        }
+        data[p] = e;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void siftDown(int p) {
+        E e = (E) data[p];
+        int j;
+        while ((j = leftChild(p)) < end) {
+            // 右孩子在块内是 j + 1，在块外是下一个孩子块的根
+            long r = (j & mask) == 0 ? (long) j + (1 << h) : j + 1;
+            if (r < end && comparator.compare((E) data[(int) r], (E) data[j]) > 0) {
+                j = (int) r;
+            }
+            if (comparator.compare(e, (E) data[j]) >= 0) {
+                break;
+            }
+            data[p] = data[j];
+            p = j;
+        }
+        data[p] = e;
+    }
+}
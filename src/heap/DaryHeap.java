@@ -0,0 +1,267 @@
+package heap;
+
+/**
+ * DaryHeap
+ * 使用基本类型数组实现的 d 叉最大堆。
+ *
+ * MaxHeap 基于 Array<E>，每一步上浮下沉都要经过带越界检查的 get 和 swap，比较的还是装箱后的对象，
+ * 对于 Integer 这样的数据，大部分时间都花在这些额外开销上了。这里做了几点改进：
+ *
+ * 1. 键直接存放在 long[] 中，不装箱；需要的话还可以给每个键附带一个 int 类型的 payload（比如元素在别处的索引），存放在平行的 int[] 中；
+ * 2. 上浮和下沉不使用交换，而是「挖坑」：先把要移动的元素拿出来，沿路径把父节点（或者孩子节点）依次挪进坑里，最后把元素放进最终的位置，
+ *    每一层只需要一次赋值，而不是交换的三次赋值；
+ * 3. d 叉堆的层数是 log_d(n)，上浮更快，下沉每层要比较 d 个孩子，但这 d 个孩子在数组中是连续的，通常在同一个缓存行里。
+ *    d 取 2 的幂，孩子和父亲的索引可以用移位计算：
+ *    第一个孩子 (i << log2(d)) + 1，父亲 (i - 1) >> log2(d)
+ *
+ * 和 MaxHeap 一样，从数组创建堆（heapify）的复杂度是 O(n)。
+ */
+public class DaryHeap {
+
+    // 数组的最大长度
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private long[] keys;
+    // 为 null 表示没有 payload
+    private int[] payloads;
+    private int size;
+    private int log;
+    private int arity;
+
+    /**
+     * 构造函数。
+     *
+     * @param arity       每个节点最多有几个孩子，只能是 2、4 或者 8。
+     * @param capacity    初始容量。
+     * @param withPayload 是否给每个键附带一个 int 类型的 payload。
+     */
+    public DaryHeap(int arity, int capacity, boolean withPayload) {
+        if (arity != 2 && arity != 4 && arity != 8) {
+            throw new IllegalArgumentException("Arity must be 2, 4 or 8.");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+
+        this.arity = arity;
+        log = Integer.numberOfTrailingZeros(arity);
+        keys = new long[capacity];
+        payloads = withPayload ? new int[capacity] : null;
+        size = 0;
+    }
+
+    public DaryHeap(int arity) {
+        this(arity, 16, false);
+    }
+
+    /**
+     * 将任意一个数组生成为一个 d 叉最大堆，O(n)。数组会被复制，不会被修改。
+     */
+    public DaryHeap(int arity, long[] arr) {
+        this(arity, arr, null);
+    }
+
+    /**
+     * 将键数组和对应的 payload 数组生成为一个 d 叉最大堆，O(n)。
+     */
+    public DaryHeap(int arity, long[] arr, int[] payloadArr) {
+        this(arity, Math.max(arr.length, 1), payloadArr != null);
+        if (payloadArr != null && payloadArr.length != arr.length) {
+            throw new IllegalArgumentException("Keys and payloads must have the same length.");
+        }
+
+        System.arraycopy(arr, 0, keys, 0, arr.length);
+        if (payloadArr != null) {
+            System.arraycopy(payloadArr, 0, payloads, 0, arr.length);
+        }
+        size = arr.length;
+
+        if (size > 1) {
+            for (int i = parent(size - 1); i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getArity() {
+        return arity;
+    }
+
+    private int parent(int index) {
+        return (index - 1) >> log;
+    }
+
+    // 用 long 计算：d 比较大时，index * d 在元素个数还不到 2^31 的时候就会超出 int 的范围
+    private long firstChild(int index) {
+        return ((long) index << log) + 1;
+    }
+
+    /**
+     * 向堆中添加一个键。
+     */
+    public void add(long key) {
+        if (payloads != null) {
+            throw new IllegalArgumentException("This heap requires a payload.");
+        }
+        ensureCapacity();
+        siftUp(size++, key, 0);
+    }
+
+    /**
+     * 向堆中添加一个键和它的 payload。
+     */
+    public void add(long key, int payload) {
+        if (payloads == null) {
+            throw new IllegalArgumentException("This heap has no payload.");
+        }
+        ensureCapacity();
+        siftUp(size++, key, payload);
+    }
+
+    /**
+     * 看堆中的最大键，不取出。
+     */
+    public long findMax() {
+        if (size == 0) {
+            throw new IllegalArgumentException("Can not findMax when heap is empty.");
+        }
+        return keys[0];
+    }
+
+    /**
+     * 看堆中最大键的 payload，不取出。
+     */
+    public int findMaxPayload() {
+        if (payloads == null) {
+            throw new IllegalArgumentException("This heap has no payload.");
+        }
+        findMax();
+        return payloads[0];
+    }
+
+    /**
+     * 取出堆中最大的键。如果需要它的 payload，先调用 findMaxPayload。
+     */
+    public long extractMax() {
+        long ret = findMax();
+
+        size--;
+        if (size > 0) {
+            // 最后一个元素填到根节点的坑里，再下沉
+            keys[0] = keys[size];
+            if (payloads != null) {
+                payloads[0] = payloads[size];
+            }
+            siftDown(0);
+        }
+        return ret;
+    }
+
+    /**
+     * 取出堆中最大的键，并且替换成 key，只需要一次下沉。
+     */
+    public long replace(long key) {
+        if (payloads != null) {
+            throw new IllegalArgumentException("This heap requires a payload.");
+        }
+        long ret = findMax();
+        keys[0] = key;
+        siftDown(0);
+        return ret;
+    }
+
+    /**
+     * 取出堆中最大的键，并且替换成 key 和它的 payload，只需要一次下沉。
+     */
+    public long replace(long key, int payload) {
+        if (payloads == null) {
+            throw new IllegalArgumentException("This heap has no payload.");
+        }
+        long ret = findMax();
+        keys[0] = key;
+        payloads[0] = payload;
+        siftDown(0);
+        return ret;
+    }
+
+    // 从坑 k 开始上浮，把 key 放到最终的位置
+    private void siftUp(int k, long key, int payload) {
+        while (k > 0) {
+            int p = parent(k);
+            if (keys[p] >= key) {
+                break;
+            }
+            keys[k] = keys[p];
+            if (payloads != null) {
+                payloads[k] = payloads[p];
+            }
+            k = p;
+        }
+
+        keys[k] = key;
+        if (payloads != null) {
+            payloads[k] = payload;
+        }
+    }
+
+    // 把 k 位置的元素拿出来，下沉到最终的位置
+    private void siftDown(int k) {
+        long key = keys[k];
+        int payload = payloads == null ? 0 : payloads[k];
+
+        long child;
+        while ((child = firstChild(k)) < size) {
+            // 在最多 d 个孩子中找到最大的一个
+            int c = (int) child;
+            int last = (int) Math.min(child + arity, size);
+            int j = c;
+            for (int i = c + 1; i < last; i++) {
+                if (keys[i] > keys[j]) {
+                    j = i;
+                }
+            }
+
+            if (key >= keys[j]) {
+                break;
+            }
+
+            keys[k] = keys[j];
+            if (payloads != null) {
+                payloads[k] = payloads[j];
+            }
+            k = j;
+        }
+
+        keys[k] = key;
+        if (payloads != null) {
+            payloads[k] = payload;
+        }
+    }
+
+    private void ensureCapacity() {
+        if (size == keys.length) {
+            if (size == MAX_CAPACITY) {
+                throw new IllegalArgumentException("Heap is full.");
+            }
+            int newCapacity = (int) Math.min(MAX_CAPACITY, 2L * keys.length);
+
+            long[] newKeys = new long[newCapacity];
+            System.arraycopy(keys, 0, newKeys, 0, size);
+            keys = newKeys;
+
+            if (payloads != null) {
+                int[] newPayloads = new int[newCapacity];
+                System.arraycopy(payloads, 0, newPayloads, 0, size);
+                payloads = newPayloads;
+            }
+        }
+    }
+}
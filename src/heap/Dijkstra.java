@@ -0,0 +1,263 @@
+package heap;
+
+import java.util.Random;
+
+/**
+ * Dijkstra
+ * 使用两种堆实现 Dijkstra 单源最短路径，对比它们在一个大的随机图上的性能。
+ *
+ * 1. 懒删除（lazy deletion）：使用 PriorityQueue，顶点的距离变小了就把 (顶点, 新距离) 再放入堆中，
+ *    出堆时如果这个顶点已经确定了最短距离就跳过。堆中最多可能有 O(m) 个元素。
+ * 2. 索引堆：使用 IndexMaxHeap，顶点的距离变小了就直接 changeKey，堆中最多只有 O(n) 个元素。
+ * 3. 配对堆：使用 PairingHeap，保存每个顶点的句柄，距离变小了就 increaseKey（对于距离来说就是 decrease-key），均摊 O(1)。
+ *
+ * 我们的堆都是最大堆，所以索引堆中存放的是距离的相反数，懒删除的堆中的元素按距离反向比较。
+ *
+ * 图使用压缩的邻接表（CSR）存储：顶点 v 的边是 to[head[v]...head[v+1]) 和 weight[head[v]...head[v+1])。
+ */
+public class Dijkstra {
+
+    // 懒删除的堆中存放的元素
+    private static class Entry implements Comparable<Entry> {
+        public int v;
+        public long dist;
+
+        public Entry(int v, long dist) {
+            this.v = v;
+            this.dist = dist;
+        }
+
+        // 距离越小越「大」，这样最大堆的堆顶就是距离最小的顶点
+        @Override
+        public int compareTo(Entry another) {
+            return Long.compare(another.dist, dist);
+        }
+    }
+
+    private int n;
+    private int[] head;
+    private int[] to;
+    private int[] weight;
+    // 上一次计算最短路径时堆中元素个数的最大值
+    private int maxHeapSize;
+
+    /**
+     * 生成一个随机的有向图：n 个顶点，每个顶点有 degree 条出边，权值在 [1, maxWeight] 之间。
+     * 另外顶点 i 到 i+1 各有一条边，保证所有顶点都能从 0 号顶点到达。
+     */
+    public Dijkstra(int n, int degree, int maxWeight, long seed) {
+        Random random = new Random(seed);
+
+        this.n = n;
+        int m = n * (degree + 1);
+        head = new int[n + 1];
+        to = new int[m];
+        weight = new int[m];
+
+        int e = 0;
+        for (int v = 0; v < n; v++) {
+            head[v] = e;
+            if (v + 1 < n) {
+                to[e] = v + 1;
+                weight[e] = 1 + random.nextInt(maxWeight);
+                e++;
+            }
+            for (int i = 0; i < degree; i++) {
+                to[e] = random.nextInt(n);
+                weight[e] = 1 + random.nextInt(maxWeight);
+                e++;
+            }
+        }
+        head[n] = e;
+    }
+
+    /**
+     * 使用懒删除的 PriorityQueue 计算从 s 出发的最短距离。
+     */
+    public long[] shortestPathLazy(int s) {
+        long[] dist = new long[n];
+        boolean[] visited = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            dist[v] = Long.MAX_VALUE;
+        }
+
+        PriorityQueue<Entry> pq = new PriorityQueue<>();
+        dist[s] = 0;
+        pq.enqueue(new Entry(s, 0));
+        int maxSize = 1;
+
+        while (!pq.isEmpty()) {
+            Entry cur = pq.dequeue();
+            if (visited[cur.v]) {
+                continue;
+            }
+            visited[cur.v] = true;
+
+            for (int e = head[cur.v]; e < head[cur.v + 1]; e++) {
+                int w = to[e];
+                if (!visited[w] && dist[cur.v] + weight[e] < dist[w]) {
+                    dist[w] = dist[cur.v] + weight[e];
+                    pq.enqueue(new Entry(w, dist[w]));
+                }
+            }
+            maxSize = Math.max(maxSize, pq.getSize());
+        }
+
+        maxHeapSize = maxSize;
+        return dist;
+    }
+
+    /**
+     * 使用 IndexMaxHeap 计算从 s 出发的最短距离。
+     */
+    public long[] shortestPathIndexed(int s) {
+        long[] dist = new long[n];
+        boolean[] visited = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            dist[v] = Long.MAX_VALUE;
+        }
+
+        IndexMaxHeap<Long> heap = new IndexMaxHeap<>(n);
+        dist[s] = 0;
+        heap.add(s, 0L);
+        int maxSize = 1;
+
+        while (!heap.isEmpty()) {
+            int v = heap.extractMaxIndex();
+            visited[v] = true;
+
+            for (int e = head[v]; e < head[v + 1]; e++) {
+                int w = to[e];
+                if (!visited[w] && dist[v] + weight[e] < dist[w]) {
+                    dist[w] = dist[v] + weight[e];
+                    if (heap.contains(w)) {
+                        heap.changeKey(w, -dist[w]);
+                    } else {
+                        heap.add(w, -dist[w]);
+                    }
+                }
+            }
+            maxSize = Math.max(maxSize, heap.getSize());
+        }
+
+        maxHeapSize = maxSize;
+        return dist;
+    }
+
+    /**
+     * 使用 PairingHeap 计算从 s 出发的最短距离。
+     */
+    public long[] shortestPathPairing(int s) {
+        long[] dist = new long[n];
+        boolean[] visited = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            dist[v] = Long.MAX_VALUE;
+        }
+
+        PairingHeap<Entry> heap = new PairingHeap<>();
+        @SuppressWarnings("unchecked")
+        PairingHeap.Handle<Entry>[] handles = (PairingHeap.Handle<Entry>[]) new PairingHeap.Handle<?>[n];
+        dist[s] = 0;
+        handles[s] = heap.add(new Entry(s, 0));
+        int maxSize = 1;
+
+        while (!heap.isEmpty()) {
+            int v = heap.dequeue().v;
+            visited[v] = true;
+
+            for (int e = head[v]; e < head[v + 1]; e++) {
+                int w = to[e];
+                if (!visited[w] && dist[v] + weight[e] < dist[w]) {
+                    dist[w] = dist[v] + weight[e];
+                    if (handles[w] == null) {
+                        handles[w] = heap.add(new Entry(w, dist[w]));
+                    } else {
+                        heap.increaseKey(handles[w], new Entry(w, dist[w]));
+                    }
+                }
+            }
+            maxSize = Math.max(maxSize, heap.getSize());
+        }
+
+        maxHeapSize = maxSize;
+        return dist;
+    }
+
+    /**
+     * 使用懒删除的 RadixHeap 计算从 s 出发的最短距离。
+     */
+    public long[] shortestPathRadix(int s) {
+        long[] dist = new long[n];
+        boolean[] visited = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            dist[v] = Long.MAX_VALUE;
+        }
+
+        RadixHeap<Entry> heap = new RadixHeap<>(entry -> entry.dist);
+        dist[s] = 0;
+        heap.enqueue(new Entry(s, 0));
+        int maxSize = 1;
+
+        while (!heap.isEmpty()) {
+            Entry cur = heap.dequeue();
+            if (visited[cur.v]) {
+                continue;
+            }
+            visited[cur.v] = true;
+
+            for (int e = head[cur.v]; e < head[cur.v + 1]; e++) {
+                int w = to[e];
+                if (!visited[w] && dist[cur.v] + weight[e] < dist[w]) {
+                    dist[w] = dist[cur.v] + weight[e];
+                    heap.enqueue(new Entry(w, dist[w]));
+                }
+            }
+            maxSize = Math.max(maxSize, heap.getSize());
+        }
+
+        maxHeapSize = maxSize;
+        return dist;
+    }
+
+    /**
+     * 上一次计算最短路径时堆中元素个数的最大值，用来对比懒删除和索引堆的堆的大小。
+     */
+    public int getMaxHeapSize() {
+        return maxHeapSize;
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int degree = 8;
+
+        Dijkstra graph = new Dijkstra(n, degree, 100, 0);
+        System.out.println("Vertices: " + n + ", edges: " + graph.head[n]);
+
+        long startTime = System.nanoTime();
+        long[] dist1 = graph.shortestPathLazy(0);
+        double time1 = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        System.out.println("Lazy deletion, time: " + time1 + "s, max heap size: " + graph.getMaxHeapSize());
+
+        startTime = System.nanoTime();
+        long[] dist2 = graph.shortestPathIndexed(0);
+        double time2 = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        System.out.println("IndexMaxHeap, time: " + time2 + "s, max heap size: " + graph.getMaxHeapSize());
+
+        startTime = System.nanoTime();
+        long[] dist3 = graph.shortestPathPairing(0);
+        double time3 = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        System.out.println("PairingHeap, time: " + time3 + "s, max heap size: " + graph.getMaxHeapSize());
+
+        startTime = System.nanoTime();
+        long[] dist4 = graph.shortestPathRadix(0);
+        double time4 = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        System.out.println("RadixHeap, time: " + time4 + "s, max heap size: " + graph.getMaxHeapSize());
+
+        for (int v = 0; v < n; v++) {
+            if (dist1[v] != dist2[v] || dist1[v] != dist3[v] || dist1[v] != dist4[v]) {
+                throw new IllegalArgumentException("Error");
+            }
+        }
+        System.out.println("Test Dijkstra completed.");
+    }
+}
@@ -0,0 +1,241 @@
+package heap;
+
+import java.util.Comparator;
+
+import forkjoin.ForkJoinScheduler;
+import forkjoin.Task;
+
+/**
+ * HeapSort
+ * 原地堆排序，以及并行的 heapify。
+ *
+ * 用 MaxHeap 排序需要把元素放进堆，再一个一个取出来放到另一个数组里，额外占用 O(n) 的空间。
+ * 原地堆排序直接把数组本身当作一个最大堆：
+ * 1. heapify：从最后一个非叶子节点开始，依次向前对每个节点做下沉，O(n)；
+ * 2. 把堆顶（最大的元素）和堆的最后一个元素交换，堆的大小减一，再对新的堆顶做下沉，重复 n - 1 次，O(nlogn)。
+ * 最大的元素依次被放到数组的末尾，最后数组从小到大有序，只需要 O(1) 的额外空间。
+ *
+ * 并行 heapify：
+ * 一个节点的下沉只会涉及它的子树，所以左右两棵子树的 heapify 是互不相关的，可以在不同的线程上进行，
+ * 两棵子树都成为堆之后，再对它们的根做一次下沉。子树足够小的时候就顺序地按层从下往上 heapify。
+ * 真正需要等待的只有最上面的几层，它们的节点很少。
+ *
+ * 排序的第二步每一次都依赖上一次的结果，没法并行，所以并行只能加快 heapify 的部分。
+ */
+public class HeapSort {
+
+    // 子树的节点数少于这个值时顺序地 heapify
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private HeapSort() {
+    }
+
+    /**
+     * 对 int 数组原地从小到大排序。
+     */
+    public static void sort(int[] arr) {
+        heapify(arr, 0, arr.length);
+        sortHeap(arr);
+    }
+
+    /**
+     * 对 int 数组原地从小到大排序，heapify 的部分并行进行。
+     */
+    public static void sort(int[] arr, ForkJoinScheduler scheduler) {
+        heapify(arr, scheduler);
+        sortHeap(arr);
+    }
+
+    /**
+     * 按照自然顺序对数组原地从小到大排序，元素必须实现 Comparable。
+     */
+    public static <E> void sort(E[] arr) {
+        sort(arr, MaxHeap.<E>naturalOrder());
+    }
+
+    /**
+     * 按照比较器对数组原地从小到大排序。
+     */
+    public static <E> void sort(E[] arr, Comparator<? super E> comparator) {
+        heapify(arr, 0, arr.length, comparator);
+        sortHeap(arr, comparator);
+    }
+
+    /**
+     * 按照比较器对数组原地从小到大排序，heapify 的部分并行进行。
+     */
+    public static <E> void sort(E[] arr, Comparator<? super E> comparator, ForkJoinScheduler scheduler) {
+        heapify(arr, comparator, scheduler);
+        sortHeap(arr, comparator);
+    }
+
+    /**
+     * 将 int 数组并行地原地 heapify 成一个最大堆。
+     */
+    public static void heapify(int[] arr, ForkJoinScheduler scheduler) {
+        if (arr.length < PARALLEL_THRESHOLD) {
+            heapify(arr, 0, arr.length);
+        } else {
+            scheduler.invoke(new IntHeapifyTask(arr, 0));
+        }
+    }
+
+    /**
+     * 将数组并行地原地 heapify 成一个最大堆，「最大」是相对于比较器而言的。
+     */
+    public static <E> void heapify(E[] arr, Comparator<? super E> comparator, ForkJoinScheduler scheduler) {
+        if (arr.length < PARALLEL_THRESHOLD) {
+            heapify(arr, 0, arr.length, comparator);
+        } else {
+            scheduler.invoke(new HeapifyTask<>(arr, 0, comparator));
+        }
+    }
+
+    // 子树 k 是否足够大，值得拆开并行
+    private static boolean isLarge(int k, int n) {
+        // 子树 k 第 log2(PARALLEL_THRESHOLD) 层的第一个节点存在，说明子树至少有 PARALLEL_THRESHOLD / 2 个节点
+        return (long) (k + 1) * PARALLEL_THRESHOLD - 1 < n;
+    }
+
+    private static class IntHeapifyTask extends Task<Void> {
+        private int[] arr;
+        private int k;
+
+        public IntHeapifyTask(int[] arr, int k) {
+            this.arr = arr;
+            this.k = k;
+        }
+
+        @Override
+        protected Void compute() {
+            if (!isLarge(k, arr.length)) {
+                heapify(arr, k, arr.length);
+                return null;
+            }
+
+            IntHeapifyTask left = new IntHeapifyTask(arr, 2 * k + 1);
+            left.fork();
+            new IntHeapifyTask(arr, 2 * k + 2).compute();
+            left.join();
+            siftDown(arr, k, arr.length);
+            return null;
+        }
+    }
+
+    private static class HeapifyTask<E> extends Task<Void> {
+        private E[] arr;
+        private int k;
+        private Comparator<? super E> comparator;
+
+        public HeapifyTask(E[] arr, int k, Comparator<? super E> comparator) {
+            this.arr = arr;
+            this.k = k;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected Void compute() {
+            if (!isLarge(k, arr.length)) {
+                heapify(arr, k, arr.length, comparator);
+                return null;
+            }
+
+            HeapifyTask<E> left = new HeapifyTask<>(arr, 2 * k + 1, comparator);
+            left.fork();
+            new HeapifyTask<>(arr, 2 * k + 2, comparator).compute();
+            left.join();
+            siftDown(arr, k, arr.length, comparator);
+            return null;
+        }
+    }
+
+    // 顺序地 heapify 以 k 为根的子树：子树中深度为 d 的节点是连续的一段 [(k + 1) * 2^d - 1, (k + 1) * 2^(d+1) - 1)，
+    // 从最深的一层开始，每一层从右往左下沉
+    private static void heapify(int[] arr, int k, int n) {
+        if (k >= n) {
+            return;
+        }
+
+        long first = k;
+        long width = 1;
+        while (2 * first + 1 < n) {
+            first = 2 * first + 1;
+            width *= 2;
+        }
+        for (; width > 0; first = (first - 1) / 2, width /= 2) {
+            for (long i = Math.min(first + width, n) - 1; i >= first; i--) {
+                siftDown(arr, (int) i, n);
+            }
+        }
+    }
+
+    private static <E> void heapify(E[] arr, int k, int n, Comparator<? super E> comparator) {
+        if (k >= n) {
+            return;
+        }
+
+        long first = k;
+        long width = 1;
+        while (2 * first + 1 < n) {
+            first = 2 * first + 1;
+            width *= 2;
+        }
+        for (; width > 0; first = (first - 1) / 2, width /= 2) {
+            for (long i = Math.min(first + width, n) - 1; i >= first; i--) {
+                siftDown(arr, (int) i, n, comparator);
+            }
+        }
+    }
+
+    // 不断把堆顶交换到堆的末尾
+    private static void sortHeap(int[] arr) {
+        for (int n = arr.length - 1; n > 0; n--) {
+            int max = arr[0];
+            arr[0] = arr[n];
+            arr[n] = max;
+            siftDown(arr, 0, n);
+        }
+    }
+
+    private static <E> void sortHeap(E[] arr, Comparator<? super E> comparator) {
+        for (int n = arr.length - 1; n > 0; n--) {
+            E max = arr[0];
+            arr[0] = arr[n];
+            arr[n] = max;
+            siftDown(arr, 0, n, comparator);
+        }
+    }
+
+    // 在前 n 个元素组成的堆中，把 k 位置的元素下沉，和 DaryHeap 一样「挖坑」而不是交换
+    private static void siftDown(int[] arr, int k, int n) {
+        int e = arr[k];
+        int j;
+        while ((j = 2 * k + 1) < n) {
+            if (j + 1 < n && arr[j + 1] > arr[j]) {
+                j++;
+            }
+            if (e >= arr[j]) {
+                break;
+            }
+            arr[k] = arr[j];
+            k = j;
+        }
+        arr[k] = e;
+    }
+
+    private static <E> void siftDown(E[] arr, int k, int n, Comparator<? super E> comparator) {
+        E e = arr[k];
+        int j;
+        while ((j = 2 * k + 1) < n) {
+            if (j + 1 < n && comparator.compare(arr[j + 1], arr[j]) > 0) {
+                j++;
+            }
+            if (comparator.compare(e, arr[j]) >= 0) {
+                break;
+            }
+            arr[k] = arr[j];
+            k = j;
+        }
+        arr[k] = e;
+    }
+}
@@ -0,0 +1,233 @@
+package heap;
+
+/**
+ * IndexMaxHeap
+ * 索引堆。
+ *
+ * MaxHeap 只能添加元素、取出最大元素，不能修改堆中某个元素的值，也不能删除某个元素。
+ * 像 Dijkstra 最短路径这样的算法，某个顶点的距离变小了，只能把新的距离再放进堆里一次，旧的那个留在堆里，取出来的时候再跳过，
+ * 堆的大小会膨胀到边的数量级。
+ *
+ * 索引堆中的每个元素都有一个索引 i（0 <= i < capacity），比如图中顶点的编号：
+ * data[i]       索引为 i 的元素
+ * indexes[k]    堆中第 k 个位置存放的是哪个索引，堆的上浮下沉移动的是这个数组
+ * reverse[i]    索引 i 在堆中的位置，也就是 indexes 的反向索引，不在堆中为 -1
+ * 有了反向索引，就能在 O(1) 找到某个元素在堆中的位置，再通过上浮和下沉在 O(logn) 内修改或者删除它。
+ *
+ * 复杂度：
+ * add(i, e)         O(logn)
+ * extractMax()      O(logn)
+ * changeKey(i, e)   O(logn)
+ * remove(i)         O(logn)
+ * contains(i)       O(1)
+ *
+ * 另外提供和 PriorityQueue 相同的 getSize、enqueue、getFront、dequeue，只是入队时要给出索引，所以没有实现 queue.Queue。
+ */
+public class IndexMaxHeap<E extends Comparable<E>> {
+
+    private E[] data;
+    private int[] indexes;
+    private int[] reverse;
+    private int size;
+
+    /**
+     * 构造函数。
+     *
+     * @param capacity 索引的范围是 [0, capacity)。
+     */
+    @SuppressWarnings("unchecked")
+    public IndexMaxHeap(int capacity) {
+        data = (E[]) new Comparable<?>[capacity];
+        indexes = new int[capacity];
+        reverse = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            reverse[i] = -1;
+        }
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return data.length;
+    }
+
+    /**
+     * 索引 i 是否在堆中。
+     */
+    public boolean contains(int i) {
+        checkIndex(i);
+        return reverse[i] != -1;
+    }
+
+    /**
+     * 向堆中添加索引为 i 的元素 e。
+     */
+    public void add(int i, E e) {
+        checkIndex(i);
+        if (reverse[i] != -1) {
+            throw new IllegalArgumentException("Index " + i + " is already in the heap.");
+        }
+
+        data[i] = e;
+        indexes[size] = i;
+        reverse[i] = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * 同 add(i, e)。
+     */
+    public void enqueue(int i, E e) {
+        add(i, e);
+    }
+
+    /**
+     * 看堆中的最大元素，不取出。
+     */
+    public E findMax() {
+        return data[findMaxIndex()];
+    }
+
+    /**
+     * 看堆中最大元素的索引，不取出。
+     */
+    public int findMaxIndex() {
+        if (size == 0) {
+            throw new IllegalArgumentException("Can not findMax when heap is empty.");
+        }
+        return indexes[0];
+    }
+
+    /**
+     * 取出堆中最大元素。
+     */
+    public E extractMax() {
+        E ret = findMax();
+        extractMaxIndex();
+        return ret;
+    }
+
+    /**
+     * 同 findMax()。
+     */
+    public E getFront() {
+        return findMax();
+    }
+
+    /**
+     * 同 extractMax()。
+     */
+    public E dequeue() {
+        return extractMax();
+    }
+
+    /**
+     * 取出堆中最大元素，返回它的索引。
+     */
+    public int extractMaxIndex() {
+        int ret = findMaxIndex();
+        removeAt(0);
+        return ret;
+    }
+
+    /**
+     * 获得索引为 i 的元素。
+     */
+    public E get(int i) {
+        if (!contains(i)) {
+            throw new IllegalArgumentException("Index " + i + " is not in the heap.");
+        }
+        return data[i];
+    }
+
+    /**
+     * 将索引为 i 的元素修改为 e。
+     * 新的值可能变大也可能变小，所以先上浮再下沉，实际只有一个方向会真正移动。
+     */
+    public void changeKey(int i, E e) {
+        if (!contains(i)) {
+            throw new IllegalArgumentException("Index " + i + " is not in the heap.");
+        }
+
+        data[i] = e;
+        siftUp(reverse[i]);
+        siftDown(reverse[i]);
+    }
+
+    /**
+     * 从堆中删除索引为 i 的元素，并将其返回。
+     */
+    public E remove(int i) {
+        if (!contains(i)) {
+            throw new IllegalArgumentException("Index " + i + " is not in the heap.");
+        }
+
+        E ret = data[i];
+        removeAt(reverse[i]);
+        return ret;
+    }
+
+    // 删除堆中第 k 个位置：用最后一个位置填上，再调整它的位置
+    private void removeAt(int k) {
+        int i = indexes[k];
+        size--;
+        if (k != size) {
+            int moved = indexes[size];
+            indexes[k] = moved;
+            reverse[moved] = k;
+            siftUp(k);
+            siftDown(reverse[moved]);
+        }
+        reverse[i] = -1;
+        data[i] = null;
+    }
+
+    private void siftUp(int k) {
+        int i = indexes[k];
+        E e = data[i];
+        while (k > 0) {
+            int p = (k - 1) / 2;
+            if (data[indexes[p]].compareTo(e) >= 0) {
+                break;
+            }
+            indexes[k] = indexes[p];
+            reverse[indexes[k]] = k;
+            k = p;
+        }
+        indexes[k] = i;
+        reverse[i] = k;
+    }
+
+    private void siftDown(int k) {
+        int i = indexes[k];
+        E e = data[i];
+        while (2 * k + 1 < size) {
+            int j = 2 * k + 1;
+            if (j + 1 < size && data[indexes[j + 1]].compareTo(data[indexes[j]]) > 0) {
+                j++;
+            }
+            if (e.compareTo(data[indexes[j]]) >= 0) {
+                break;
+            }
+            indexes[k] = indexes[j];
+            reverse[indexes[k]] = k;
+            k = j;
+        }
+        indexes[k] = i;
+        reverse[i] = k;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= data.length) {
+            throw new IllegalArgumentException("Index is illegal.");
+        }
+    }
+}
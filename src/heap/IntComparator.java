@@ -0,0 +1,10 @@
+package heap;
+
+/**
+ * IntComparator
+ * int 类型的比较器，比较时不需要装箱。
+ */
+public interface IntComparator {
+
+    int compare(int a, int b);
+}
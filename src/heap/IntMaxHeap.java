@@ -0,0 +1,118 @@
+package heap;
+
+/**
+ * IntMaxHeap
+ * 存放 int 的最大堆，使用 IntComparator 比较，元素不装箱。
+ *
+ * 和 MaxHeap 一样，「最大」是相对于比较器而言的，比较器为 (a, b) -> Integer.compare(b, a) 时就是最小堆。
+ * 上浮和下沉使用「挖坑」的方式，每一层只需要一次赋值。
+ */
+public class IntMaxHeap {
+
+    private int[] data;
+    private int size;
+    private IntComparator comparator;
+
+    public IntMaxHeap(int capacity, IntComparator comparator) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+
+        data = new int[capacity];
+        size = 0;
+        this.comparator = comparator;
+    }
+
+    public IntMaxHeap(IntComparator comparator) {
+        this(16, comparator);
+    }
+
+    /**
+     * 按照 int 的自然顺序比较的最大堆。
+     */
+    public IntMaxHeap() {
+        this(16, Integer::compare);
+    }
+
+    /**
+     * 将任意一个数组生成为一个堆，O(n)。数组会被复制，不会被修改。
+     */
+    public IntMaxHeap(int[] arr, IntComparator comparator) {
+        this(Math.max(arr.length, 1), comparator);
+        System.arraycopy(arr, 0, data, 0, arr.length);
+        size = arr.length;
+        for (int i = (size - 2) / 2; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void add(int e) {
+        if (size == data.length) {
+            int[] newData = new int[data.length * 2];
+            System.arraycopy(data, 0, newData, 0, size);
+            data = newData;
+        }
+
+        int k = size++;
+        while (k > 0) {
+            int p = (k - 1) / 2;
+            if (comparator.compare(data[p], e) >= 0) {
+                break;
+            }
+            data[k] = data[p];
+            k = p;
+        }
+        data[k] = e;
+    }
+
+    public int findMax() {
+        if (size == 0) {
+            throw new IllegalArgumentException("Can not findMax when heap is empty.");
+        }
+        return data[0];
+    }
+
+    public int extractMax() {
+        int ret = findMax();
+        size--;
+        if (size > 0) {
+            data[0] = data[size];
+            siftDown(0);
+        }
+        return ret;
+    }
+
+    /**
+     * 取出堆中最大的元素，并且替换成元素 e，只需要一次下沉。
+     */
+    public int replace(int e) {
+        int ret = findMax();
+        data[0] = e;
+        siftDown(0);
+        return ret;
+    }
+
+    private void siftDown(int k) {
+        int e = data[k];
+        while (2 * k + 1 < size) {
+            int j = 2 * k + 1;
+            if (j + 1 < size && comparator.compare(data[j + 1], data[j]) > 0) {
+                j++;
+            }
+            if (comparator.compare(e, data[j]) >= 0) {
+                break;
+            }
+            data[k] = data[j];
+            k = j;
+        }
+        data[k] = e;
+    }
+}
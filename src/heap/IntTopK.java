@@ -0,0 +1,61 @@
+package heap;
+
+/**
+ * IntTopK
+ * TopK 的 int 版本，使用 IntMaxHeap，元素不装箱。
+ */
+public class IntTopK {
+
+    private int k;
+    // 按相反顺序比较，堆顶是目前选出的元素中最小的那个
+    private IntMaxHeap heap;
+
+    public IntTopK(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive.");
+        }
+
+        this.k = k;
+        heap = new IntMaxHeap(k, (a, b) -> Integer.compare(b, a));
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    public void offer(int e) {
+        if (heap.size() < k) {
+            heap.add(e);
+        } else if (e > heap.findMax()) {
+            heap.replace(e);
+        }
+    }
+
+    /**
+     * 把另一个 IntTopK 选出的元素合并进来，合并后 other 为空。
+     */
+    public IntTopK merge(IntTopK other) {
+        while (!other.heap.isEmpty()) {
+            offer(other.heap.extractMax());
+        }
+        return this;
+    }
+
+    /**
+     * 目前选出的元素，从大到小排列。
+     */
+    public int[] toSortedArray() {
+        int[] res = new int[heap.size()];
+        for (int i = res.length - 1; i >= 0; i--) {
+            res[i] = heap.extractMax();
+        }
+        for (int e : res) {
+            heap.add(e);
+        }
+        return res;
+    }
+}
@@ -1,29 +1,50 @@
 package heap;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import forkjoin.ForkJoinScheduler;
+import queue.Queue;
 
 /**
  * Main
  */
 public class Main {
 
-    private static double testHeap(Integer[] testData, boolean isHeapify) {
-        long startTime = System.nanoTime();
+    // 以前想要最小堆，只能把每个元素包装成一个反向比较的对象
+    private static class Inverted implements Comparable<Inverted> {
+        public int value;
 
-        MaxHeap<Integer> maxHeap;
-        if (isHeapify) {
-            maxHeap = new MaxHeap<>(testData);
-        } else {
-            maxHeap = new MaxHeap<>();
-            for (int num : testData) {
-                maxHeap.add(num);
-            }
+        public Inverted(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(Inverted another) {
+            return Integer.compare(another.value, value);
         }
+    }
+
+    // 用 builder 生成堆，再全部取出，分别返回生成和取出的时间
+    private static double[] testHeap(Integer[] testData, Function<Integer[], MaxHeap<Integer>> builder) {
+        long startTime = System.nanoTime();
+        MaxHeap<Integer> maxHeap = builder.apply(testData);
+        long buildTime = System.nanoTime();
 
         int[] arr = new int[testData.length];
         for (int i = 0; i < testData.length; i++) {
             arr[i] = maxHeap.extractMax();
         }
+        long endTime = System.nanoTime();
 
         for (int i = 1; i < testData.length; i++) {
             if (arr[i - 1] < arr[i]) {
@@ -31,29 +52,601 @@ public class Main {
             }
         }
 
-        System.out.println("Test MaxHeap completed.");
+        return new double[] { (buildTime - startTime) / 1_000_000_000.0, (endTime - buildTime) / 1_000_000_000.0 };
+    }
 
-        long endTime = System.nanoTime();
+    /**
+     * 对比生成堆的三种方式：逐个添加 O(nlogn)、heapify O(n)、并行 heapify；再对比原地堆排序和 Arrays.sort。
+     * 每一项跑 3 轮，前面的轮次也用来预热。
+     */
+    private static void compareHeapify(int n) {
+        Random random = new Random();
+        Integer[] testData = new Integer[n];
+        int[] intData = new int[n];
+        for (int i = 0; i < n; i++) {
+            intData[i] = random.nextInt(Integer.MAX_VALUE);
+            testData[i] = intData[i];
+        }
 
-        return (endTime - startTime) / 1_000_000_000.0;
+        ForkJoinScheduler scheduler = new ForkJoinScheduler();
+        for (int round = 1; round <= 3; round++) {
+            System.out.println("Round " + round + ", n = " + n + ", parallelism = " + scheduler.getParallelism());
+
+            double[] time1 = testHeap(testData, arr -> {
+                MaxHeap<Integer> maxHeap = new MaxHeap<>();
+                for (int num : arr) {
+                    maxHeap.add(num);
+                }
+                return maxHeap;
+            });
+            System.out.println("Without heapify, build: " + time1[0] + "s, extract: " + time1[1] + "s");
+
+            double[] time2 = testHeap(testData, arr -> new MaxHeap<>(arr));
+            System.out.println("With heapify, build: " + time2[0] + "s, extract: " + time2[1] + "s");
+
+            double[] time3 = testHeap(testData, arr -> new MaxHeap<>(arr, MaxHeap.naturalOrder(), scheduler));
+            System.out.println("With parallel heapify, build: " + time3[0] + "s, extract: " + time3[1] + "s");
+
+            int[] ints = intData.clone();
+            long startTime = System.nanoTime();
+            HeapSort.sort(ints);
+            System.out.println("HeapSort int[]: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+            checkSorted(ints, intData);
+
+            ints = intData.clone();
+            startTime = System.nanoTime();
+            HeapSort.sort(ints, scheduler);
+            System.out.println("HeapSort int[] (parallel heapify): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+            checkSorted(ints, intData);
+
+            int[] expected = intData.clone();
+            startTime = System.nanoTime();
+            Arrays.sort(expected);
+            System.out.println("Arrays.sort int[]: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+            Integer[] objects = testData.clone();
+            startTime = System.nanoTime();
+            HeapSort.sort(objects);
+            System.out.println("HeapSort Integer[]: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+            for (int i = 0; i < n; i++) {
+                if (objects[i] != expected[i]) {
+                    throw new IllegalArgumentException("Error");
+                }
+            }
+
+            objects = testData.clone();
+            startTime = System.nanoTime();
+            Arrays.sort(objects);
+            System.out.println("Arrays.sort Integer[]: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+        }
+        scheduler.shutdown();
+    }
+
+    private static void checkSorted(int[] arr, int[] original) {
+        long sum = 0;
+        for (int i = 0; i < arr.length; i++) {
+            if (i > 0 && arr[i - 1] > arr[i]) {
+                throw new IllegalArgumentException("Error");
+            }
+            sum += arr[i] - (long) original[i];
+        }
+        if (sum != 0) {
+            throw new IllegalArgumentException("Error");
+        }
     }
 
-    public static void main(String[] args) {
+    /**
+     * 对比 MaxHeap、java.util.PriorityQueue 和不同叉数的 DaryHeap：逐个添加 n 个元素，再全部取出。
+     */
+    private static void compareHeaps(int n) {
+        Random random = new Random();
+        int[] testData = new int[n];
+        for (int i = 0; i < n; i++) {
+            testData[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+
+        System.out.println("n = " + n);
+
+        long startTime = System.nanoTime();
+        MaxHeap<Integer> maxHeap = new MaxHeap<>();
+        for (int num : testData) {
+            maxHeap.add(num);
+        }
+        int prev = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            int cur = maxHeap.extractMax();
+            if (cur > prev) {
+                throw new IllegalArgumentException("Error");
+            }
+            prev = cur;
+        }
+        System.out.println("MaxHeap: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        java.util.PriorityQueue<Integer> pq = new java.util.PriorityQueue<>(Collections.reverseOrder());
+        for (int num : testData) {
+            pq.add(num);
+        }
+        prev = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            int cur = pq.poll();
+            if (cur > prev) {
+                throw new IllegalArgumentException("Error");
+            }
+            prev = cur;
+        }
+        System.out.println("java.util.PriorityQueue: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        for (int arity = 2; arity <= 8; arity *= 2) {
+            startTime = System.nanoTime();
+            DaryHeap daryHeap = new DaryHeap(arity, n, false);
+            for (int num : testData) {
+                daryHeap.add(num);
+            }
+            long prevKey = Long.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                long cur = daryHeap.extractMax();
+                if (cur > prevKey) {
+                    throw new IllegalArgumentException("Error");
+                }
+                prevKey = cur;
+            }
+            System.out.println("DaryHeap (d = " + arity + "): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+        }
+
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = testData[i];
+        }
+        for (int arity = 2; arity <= 8; arity *= 2) {
+            startTime = System.nanoTime();
+            DaryHeap daryHeap = new DaryHeap(arity, keys);
+            long prevKey = Long.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                long cur = daryHeap.extractMax();
+                if (cur > prevKey) {
+                    throw new IllegalArgumentException("Error");
+                }
+                prevKey = cur;
+            }
+            System.out.println("DaryHeap (d = " + arity + ", heapify): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+        }
+    }
+
+    /**
+     * 对比三种最小堆的写法：包装成反向比较的对象、传入反向的 Comparator、使用 IntMaxHeap 和 IntComparator。
+     */
+    private static void compareMinHeaps(int n) {
+        Random random = new Random();
+        int[] testData = new int[n];
+        for (int i = 0; i < n; i++) {
+            testData[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+
+        long startTime = System.nanoTime();
+        MaxHeap<Inverted> wrapped = new MaxHeap<>();
+        for (int num : testData) {
+            wrapped.add(new Inverted(num));
+        }
+        int prev = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int cur = wrapped.extractMax().value;
+            if (cur < prev) {
+                throw new IllegalArgumentException("Error");
+            }
+            prev = cur;
+        }
+        System.out.println("Min heap (wrapper): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        MaxHeap<Integer> reversed = new MaxHeap<>(Comparator.reverseOrder());
+        for (int num : testData) {
+            reversed.add(num);
+        }
+        prev = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int cur = reversed.extractMax();
+            if (cur < prev) {
+                throw new IllegalArgumentException("Error");
+            }
+            prev = cur;
+        }
+        System.out.println("Min heap (Comparator): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        IntMaxHeap intHeap = new IntMaxHeap(n, (a, b) -> Integer.compare(b, a));
+        for (int num : testData) {
+            intHeap.add(num);
+        }
+        prev = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int cur = intHeap.extractMax();
+            if (cur < prev) {
+                throw new IllegalArgumentException("Error");
+            }
+            prev = cur;
+        }
+        System.out.println("Min heap (IntComparator): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+    }
+
+    /**
+     * 对比在 n 个数中选出最大的 k 个数的几种做法。
+     */
+    private static void compareTopK(int n, int k) {
+        Random random = new Random();
+        int[] testData = new int[n];
+        for (int i = 0; i < n; i++) {
+            testData[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+
+        long startTime = System.nanoTime();
+        MaxHeap<Integer> maxHeap = new MaxHeap<>();
+        for (int num : testData) {
+            maxHeap.add(num);
+        }
+        int[] expected = new int[k];
+        for (int i = 0; i < k; i++) {
+            expected[i] = maxHeap.extractMax();
+        }
+        System.out.println("Top " + k + " (MaxHeap of all): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        TopK<Integer> topK = new TopK<>(k);
+        for (int num : testData) {
+            topK.offer(num);
+        }
+        List<Integer> res1 = topK.toSortedList();
+        System.out.println("Top " + k + " (TopK): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        IntTopK intTopK = new IntTopK(k);
+        for (int num : testData) {
+            intTopK.offer(num);
+        }
+        int[] res2 = intTopK.toSortedArray();
+        System.out.println("Top " + k + " (IntTopK): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        List<Integer> res3 = IntStream.of(testData).parallel().boxed()
+                .collect(TopK.collector(k, Comparator.<Integer>naturalOrder()));
+        System.out.println("Top " + k + " (TopK.collector, parallel): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
 
-        int n = 1_000_000;
+        startTime = System.nanoTime();
+        int[] res4 = IntStream.of(testData).parallel()
+                .collect(() -> new IntTopK(k), IntTopK::offer, IntTopK::merge).toSortedArray();
+        System.out.println("Top " + k + " (IntTopK, parallel): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
 
+        for (int i = 0; i < k; i++) {
+            if (res1.get(i) != expected[i] || res2[i] != expected[i] || res3.get(i) != expected[i] || res4[i] != expected[i]) {
+                throw new IllegalArgumentException("Error");
+            }
+        }
+    }
+
+    /**
+     * 对比 MaxHeap 和不同块大小的 BHeap 在 n 个元素时 extractMax 的吞吐量。
+     * 堆都用 heapify 生成，之后取出 min(n, 10M) 个元素计时。n 很大时（比如 500M）需要调大堆内存。
+     */
+    private static void compareLayouts(int n) {
         Random random = new Random();
         Integer[] testData = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            testData[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+        int k = Math.min(n, 10_000_000);
+
+        MaxHeap<Integer> maxHeap = new MaxHeap<>(testData);
+        long startTime = System.nanoTime();
+        long sum1 = 0;
+        for (int i = 0; i < k; i++) {
+            sum1 += maxHeap.extractMax();
+        }
+        double time = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        System.out.println("extractMax, n = " + n + " (MaxHeap): " + time + "s, " + (long) (k / time) + " ops/s");
+        maxHeap = null;
+
+        for (int blockHeight : new int[] { 4, 10 }) {
+            BHeap<Integer> bHeap = new BHeap<>(blockHeight, testData, MaxHeap.naturalOrder());
+            startTime = System.nanoTime();
+            long sum2 = 0;
+            for (int i = 0; i < k; i++) {
+                sum2 += bHeap.extractMax();
+            }
+            time = (System.nanoTime() - startTime) / 1_000_000_000.0;
+            System.out.println("extractMax, n = " + n + " (BHeap, h = " + blockHeight + "): " + time + "s, "
+                    + (long) (k / time) + " ops/s");
+
+            if (sum1 != sum2) {
+                throw new IllegalArgumentException("Error");
+            }
+        }
+    }
 
+    /**
+     * 对比 PairingHeap 和 MaxHeap 在合并密集的场景下的性能：
+     * 一开始有 n 个只有一个元素的堆，每一轮把相邻的两个堆合并，合并之后取出一次最大元素再放回一个新的元素，直到只剩一个堆。
+     * MaxHeap 不能直接合并，只能把较小的堆中的元素逐个取出放入较大的堆。
+     */
+    private static void compareMeld(int n) {
+        Random random = new Random();
+        int[] testData = new int[n];
         for (int i = 0; i < n; i++) {
             testData[i] = random.nextInt(Integer.MAX_VALUE);
         }
 
+        long startTime = System.nanoTime();
+        List<MaxHeap<Integer>> maxHeaps = new ArrayList<>();
+        for (int num : testData) {
+            MaxHeap<Integer> heap = new MaxHeap<>();
+            heap.add(num);
+            maxHeaps.add(heap);
+        }
+        Random replay = new Random(0);
+        while (maxHeaps.size() > 1) {
+            List<MaxHeap<Integer>> next = new ArrayList<>();
+            for (int i = 0; i + 1 < maxHeaps.size(); i += 2) {
+                MaxHeap<Integer> a = maxHeaps.get(i);
+                MaxHeap<Integer> b = maxHeaps.get(i + 1);
+                if (a.size() < b.size()) {
+                    MaxHeap<Integer> t = a;
+                    a = b;
+                    b = t;
+                }
+                while (!b.isEmpty()) {
+                    a.add(b.extractMax());
+                }
+                a.replace(replay.nextInt(Integer.MAX_VALUE));
+                next.add(a);
+            }
+            if (maxHeaps.size() % 2 == 1) {
+                next.add(maxHeaps.get(maxHeaps.size() - 1));
+            }
+            maxHeaps = next;
+        }
+        System.out.println("Meld (MaxHeap): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        List<PairingHeap<Integer>> pairingHeaps = new ArrayList<>();
+        for (int num : testData) {
+            PairingHeap<Integer> heap = new PairingHeap<>();
+            heap.add(num);
+            pairingHeaps.add(heap);
+        }
+        replay = new Random(0);
+        while (pairingHeaps.size() > 1) {
+            List<PairingHeap<Integer>> next = new ArrayList<>();
+            for (int i = 0; i + 1 < pairingHeaps.size(); i += 2) {
+                PairingHeap<Integer> a = pairingHeaps.get(i);
+                a.meld(pairingHeaps.get(i + 1));
+                a.dequeue();
+                a.enqueue(replay.nextInt(Integer.MAX_VALUE));
+                next.add(a);
+            }
+            if (pairingHeaps.size() % 2 == 1) {
+                next.add(pairingHeaps.get(pairingHeaps.size() - 1));
+            }
+            pairingHeaps = next;
+        }
+        System.out.println("Meld (PairingHeap): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        MaxHeap<Integer> maxHeap = maxHeaps.get(0);
+        PairingHeap<Integer> pairingHeap = pairingHeaps.get(0);
+        if (maxHeap.size() != pairingHeap.getSize()) {
+            throw new IllegalArgumentException("Error");
+        }
+        while (!maxHeap.isEmpty()) {
+            if (!maxHeap.extractMax().equals(pairingHeap.dequeue())) {
+                throw new IllegalArgumentException("Error");
+            }
+        }
+    }
+
+    /**
+     * 对比 RadixHeap 和 PriorityQueue 在单调的事件模拟中的性能：
+     * 队列中始终有 n 个事件，每次取出时间最早的事件，再安排一个在它之后随机时间发生的新事件，一共处理 10n 个事件。
+     */
+    private static void compareMonotone(int n) {
+        int events = 10 * n;
+        int maxDelay = 1_000_000;
+
+        long startTime = System.nanoTime();
+        Random random = new Random(0);
+        PriorityQueue<Long> pq = new PriorityQueue<>(Comparator.reverseOrder());
+        for (int i = 0; i < n; i++) {
+            pq.enqueue((long) random.nextInt(maxDelay));
+        }
+        long sum1 = 0;
+        for (int i = 0; i < events; i++) {
+            long t = pq.dequeue();
+            sum1 += t;
+            pq.enqueue(t + 1 + random.nextInt(maxDelay));
+        }
+        System.out.println("Monotone events (PriorityQueue): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        random = new Random(0);
+        RadixHeap<Long> radixHeap = new RadixHeap<>(t -> t);
+        for (int i = 0; i < n; i++) {
+            radixHeap.enqueue((long) random.nextInt(maxDelay));
+        }
+        long sum2 = 0;
+        for (int i = 0; i < events; i++) {
+            long t = radixHeap.dequeue();
+            sum2 += t;
+            radixHeap.enqueue(t + 1 + random.nextInt(maxDelay));
+        }
+        System.out.println("Monotone events (RadixHeap): " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        if (sum1 != sum2) {
+            throw new IllegalArgumentException("Error");
+        }
+    }
+
+    /**
+     * 对比 MultiQueue 和加了一把全局锁的 PriorityQueue 在 1 到 N 个线程下的吞吐量，以及 MultiQueue 出队的平均排名误差。
+     * 队列中先放入 n 个元素，然后每个线程交替地入队和出队。
+     */
+    private static void compareConcurrent(int n) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int opsPerThread = 1_000_000;
+        int keyRange = 1 << 20;
+
+        // 线程数依次为 1, 2, 4, ... , cores
+        for (int p = 1;; p = Math.min(p * 2, cores)) {
+            MultiQueue<Integer> multiQueue = new MultiQueue<>(p);
+            double time1 = testConcurrentQueue(multiQueue, p, n, opsPerThread, keyRange, null);
+
+            ReentrantLock lock = new ReentrantLock();
+            PriorityQueue<Integer> pq = new PriorityQueue<>();
+            Queue<Integer> locked = new Queue<Integer>() {
+                @Override
+                public void enqueue(Integer e) {
+                    lock.lock();
+                    try {
+                        pq.enqueue(e);
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+
+                @Override
+                public Integer dequeue() {
+                    lock.lock();
+                    try {
+                        return pq.dequeue();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+
+                @Override
+                public Integer getFront() {
+                    return pq.getFront();
+                }
+
+                @Override
+                public int getSize() {
+                    return pq.getSize();
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return pq.isEmpty();
+                }
+            };
+            double time2 = testConcurrentQueue(locked, p, n, opsPerThread, keyRange, null);
+
+            // 排名误差：记录每一次入队出队的全局顺序，然后按顺序重放，用树状数组算出出队时比它大的元素个数
+            long[] log = new long[2 * p * opsPerThread + n];
+            testConcurrentQueue(new MultiQueue<>(p), p, n, opsPerThread, keyRange, log);
+            double rankError = averageRankError(log, keyRange);
+
+            double ops = 2.0 * p * opsPerThread;
+            System.out.println(String.format("Threads: %d, MultiQueue: %.0f ops/s, locked PriorityQueue: %.0f ops/s, MultiQueue mean rank error: %.2f",
+                    p, ops / time1, ops / time2, rankError));
+
+            if (p == cores) {
+                break;
+            }
+        }
+    }
+
+    // log 不为 null 时记录每一次操作：入队记为 key + 1，出队记为 -(key + 1)，下标是操作的全局顺序
+    private static double testConcurrentQueue(Queue<Integer> q, int threads, int n, int opsPerThread, int keyRange,
+            long[] log) throws InterruptedException {
+        AtomicLong seq = new AtomicLong(0);
+        Random random = new Random();
+        for (int i = 0; i < n; i++) {
+            int key = random.nextInt(keyRange);
+            q.enqueue(key);
+            if (log != null) {
+                log[(int) seq.getAndIncrement()] = key + 1;
+            }
+        }
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom r = ThreadLocalRandom.current();
+                for (int i = 0; i < opsPerThread; i++) {
+                    int key = r.nextInt(keyRange);
+                    if (log != null) {
+                        // 先记录再入队，保证重放时出队之前一定已经入队了
+                        log[(int) seq.getAndIncrement()] = key + 1;
+                    }
+                    q.enqueue(key);
+
+                    int ret = q.dequeue();
+                    if (log != null) {
+                        log[(int) seq.getAndIncrement()] = -(ret + 1);
+                    }
+                }
+            });
+        }
+
+        long startTime = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long endTime = System.nanoTime();
+
+        return (endTime - startTime) / 1_000_000_000.0;
+    }
+
+    private static double averageRankError(long[] log, int keyRange) {
+        // 树状数组，tree[i] 记录一段区间中 key 的个数
+        long[] tree = new long[keyRange + 1];
+        long total = 0;
+        long errorSum = 0;
+        long dequeues = 0;
+
+        for (long op : log) {
+            int key = (int) Math.abs(op) - 1;
+            if (op > 0) {
+                for (int i = key + 1; i <= keyRange; i += i & -i) {
+                    tree[i]++;
+                }
+                total++;
+            } else {
+                long notGreater = 0;
+                for (int i = key + 1; i > 0; i -= i & -i) {
+                    notGreater += tree[i];
+                }
+                errorSum += total - notGreater;
+                dequeues++;
+
+                for (int i = key + 1; i <= keyRange; i += i & -i) {
+                    tree[i]--;
+                }
+                total--;
+            }
+        }
+
+        return dequeues == 0 ? 0 : (double) errorSum / dequeues;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+
+        // 运行参数为 DaryHeap 对比测试的数据规模，比如 1000000 10000000 100000000，规模大时需要调大堆内存
+        for (String arg : args) {
+            compareHeaps(Integer.parseInt(arg));
+            compareHeapify(Integer.parseInt(arg));
+            compareLayouts(Integer.parseInt(arg));
+            compareMinHeaps(Integer.parseInt(arg));
+            compareTopK(Integer.parseInt(arg), 100);
+            compareMeld(Integer.parseInt(arg));
+            compareMonotone(Integer.parseInt(arg));
+            compareConcurrent(Integer.parseInt(arg));
+        }
+        if (args.length > 0) {
+            return;
+        }
+
         // 使用 heapify 和不是用，复杂度是 O(n) 和 O(nlogn)
-        double time1 = testHeap(testData, false);
-        System.out.println("Without heapify: " +  time1 + "s");
-        double time2 = testHeap(testData, true);
-        System.out.println("With heapify: " +  time2 + "s");
+        compareHeapify(1_000_000);
 
 
         // int n = 1_000_000;
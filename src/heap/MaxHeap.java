@@ -1,6 +1,9 @@
 package heap;
 
+import java.util.Comparator;
+
 import array.Array;
+import forkjoin.ForkJoinScheduler;
 
 /**
  * MaxHeap
@@ -36,16 +39,33 @@ import array.Array;
  * 更高级的堆还有 索引堆，它可以操作堆中的某个元素
  * 二项堆
  * 斐波那契堆
+ *
+ * 元素的大小默认按照 Comparable 的自然顺序比较，也可以在构造时传入一个 Comparator。
+ * 「最大」是相对于比较器而言的，传入 Comparator.reverseOrder() 得到的就是一个最小堆，不需要把每个元素包装成一个反向比较的对象。
  */
-public class MaxHeap<E extends Comparable<E>> {
+public class MaxHeap<E> {
     private Array<E> data;
+    private Comparator<? super E> comparator;
 
-    public MaxHeap(int capacity) {
+    public MaxHeap(int capacity, Comparator<? super E> comparator) {
         data = new Array<>(capacity);
+        this.comparator = comparator;
     }
 
-    public MaxHeap() {
+    public MaxHeap(Comparator<? super E> comparator) {
         data = new Array<>();
+        this.comparator = comparator;
+    }
+
+    /**
+     * 按照自然顺序比较的最大堆，元素必须实现 Comparable。
+     */
+    public MaxHeap(int capacity) {
+        this(capacity, naturalOrder());
+    }
+
+    public MaxHeap() {
+        this(MaxHeap.<E>naturalOrder());
     }
 
     /**
@@ -54,12 +74,35 @@ public class MaxHeap<E extends Comparable<E>> {
      * heapify 的过程，算法复杂度是 O(n) 级别的
      */
     public MaxHeap(E[] arr) {
+        this(arr, naturalOrder());
+    }
+
+    public MaxHeap(E[] arr, Comparator<? super E> comparator) {
         data = new Array<>(arr);
+        this.comparator = comparator;
         for (int i = parent(arr.length - 1); i >= 0; i--) {
             siftDown(i);
         }
     }
 
+    /**
+     * 将任意一个数组并行地生成为一个最大堆，左右子树在不同的线程上 heapify，参见 HeapSort。
+     */
+    public MaxHeap(E[] arr, Comparator<? super E> comparator, ForkJoinScheduler scheduler) {
+        E[] copy = arr.clone();
+        HeapSort.heapify(copy, comparator, scheduler);
+        data = new Array<>(copy);
+        this.comparator = comparator;
+    }
+
+    /**
+     * 自然顺序的比较器，元素没有实现 Comparable 时在比较时抛出 ClassCastException。
+     */
+    @SuppressWarnings("unchecked")
+    static <E> Comparator<E> naturalOrder() {
+        return (a, b) -> ((Comparable<? super E>) a).compareTo(b);
+    }
+
     /**
      * 返回堆中元素个数。
      */
@@ -113,7 +156,7 @@ public class MaxHeap<E extends Comparable<E>> {
      */
     private void siftUp(int k) {
 
-        while (k > 0 && data.get(parent(k)).compareTo(data.get(k)) < 0) {
+        while (k > 0 && comparator.compare(data.get(parent(k)), data.get(k)) < 0) {
             data.swap(k, parent(k));
             k = parent(k);
         }
@@ -152,11 +195,11 @@ public class MaxHeap<E extends Comparable<E>> {
 
         while (leftChild(k) < data.getSize()) {
             int j = leftChild(k);
-            if (j + 1 < data.getSize() && data.get(j + 1).compareTo(data.get(j)) > 0) {
+            if (j + 1 < data.getSize() && comparator.compare(data.get(j + 1), data.get(j)) > 0) {
                 j = rightChild(k);
             }
 
-            if (data.get(k).compareTo(data.get(j)) >= 0) {
+            if (comparator.compare(data.get(k), data.get(j)) >= 0) {
                 break;
             }
 
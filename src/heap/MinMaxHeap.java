@@ -0,0 +1,210 @@
+package heap;
+
+import java.util.Comparator;
+
+/**
+ * MinMaxHeap
+ * 最小最大堆，可以在 O(1) 内同时看到最小元素和最大元素，在 O(logn) 内取出其中任意一个，适合用作双端优先队列。
+ *
+ * 它也是一棵用数组表示的完全二叉树，只是不同的层满足不同的性质：
+ * 偶数层（根节点是第 0 层）是最小层，节点的值不大于它所有子孙节点的值；
+ * 奇数层是最大层，节点的值不小于它所有子孙节点的值。
+ * 所以根节点就是最小值，最大值是根节点的两个孩子中较大的那个。
+ *
+ * 上浮时新元素先和父亲比较，决定它属于最小层的路径还是最大层的路径，之后只和祖父节点比较；
+ * 下沉时在孩子和孙子中找到最小（或最大）的节点，每次跳过两层。
+ */
+public class MinMaxHeap<E> {
+
+    private E[] data;
+    private int size;
+    private Comparator<? super E> comparator;
+
+    @SuppressWarnings("unchecked")
+    public MinMaxHeap(int capacity, Comparator<? super E> comparator) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+
+        data = (E[]) new Object[capacity];
+        size = 0;
+        this.comparator = comparator;
+    }
+
+    public MinMaxHeap(Comparator<? super E> comparator) {
+        this(16, comparator);
+    }
+
+    /**
+     * 按照自然顺序比较，元素必须实现 Comparable。
+     */
+    public MinMaxHeap() {
+        this(16, MaxHeap.naturalOrder());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void add(E e) {
+        if (size == data.length) {
+            @SuppressWarnings("unchecked")
+            E[] newData = (E[]) new Object[data.length * 2];
+            System.arraycopy(data, 0, newData, 0, size);
+            data = newData;
+        }
+
+        data[size] = e;
+        int k = size++;
+        if (k == 0) {
+            return;
+        }
+
+        int p = parent(k);
+        if (isMinLevel(k)) {
+            if (comparator.compare(data[k], data[p]) > 0) {
+                swap(k, p);
+                pushUp(p, 1);
+            } else {
+                pushUp(k, -1);
+            }
+        } else {
+            if (comparator.compare(data[k], data[p]) < 0) {
+                swap(k, p);
+                pushUp(p, -1);
+            } else {
+                pushUp(k, 1);
+            }
+        }
+    }
+
+    /**
+     * 看堆中的最小元素，O(1)。
+     */
+    public E findMin() {
+        if (size == 0) {
+            throw new IllegalArgumentException("Can not findMin when heap is empty.");
+        }
+        return data[0];
+    }
+
+    /**
+     * 看堆中的最大元素，O(1)。
+     */
+    public E findMax() {
+        if (size == 0) {
+            throw new IllegalArgumentException("Can not findMax when heap is empty.");
+        }
+        return data[maxIndex()];
+    }
+
+    /**
+     * 取出堆中的最小元素。
+     */
+    public E extractMin() {
+        E ret = findMin();
+        removeAt(0);
+        return ret;
+    }
+
+    /**
+     * 取出堆中的最大元素。
+     */
+    public E extractMax() {
+        E ret = findMax();
+        removeAt(maxIndex());
+        return ret;
+    }
+
+    private int maxIndex() {
+        if (size == 1) {
+            return 0;
+        }
+        if (size == 2 || comparator.compare(data[1], data[2]) >= 0) {
+            return 1;
+        }
+        return 2;
+    }
+
+    // 删除 k 位置的元素，k 只能是根节点或者根节点的孩子
+    private void removeAt(int k) {
+        size--;
+        data[k] = data[size];
+        data[size] = null;
+        if (k < size) {
+            pushDown(k, isMinLevel(k) ? -1 : 1);
+        }
+    }
+
+    // 索引为 k 的节点是否在最小层
+    private boolean isMinLevel(int k) {
+        return ((31 - Integer.numberOfLeadingZeros(k + 1)) & 1) == 0;
+    }
+
+    private int parent(int k) {
+        return (k - 1) / 2;
+    }
+
+    // 按照方向 dir 比较 data[i] 和 data[j]，大于 0 表示 data[i] 更「极端」。
+    // 先取符号再乘 dir：比较器可能返回 Integer.MIN_VALUE，直接乘 -1 会溢出，结果还是 MIN_VALUE
+    private int compare(int i, int j, int dir) {
+        return Integer.signum(comparator.compare(data[i], data[j])) * dir;
+    }
+
+    // dir 为 -1 表示在最小层上浮（越小越往上），为 1 表示在最大层上浮（越大越往上）
+    private void pushUp(int k, int dir) {
+        while (k > 2) {
+            int g = parent(parent(k));
+            if (compare(k, g, dir) <= 0) {
+                break;
+            }
+            swap(k, g);
+            k = g;
+        }
+    }
+
+    // dir 为 -1 表示在最小层下沉，为 1 表示在最大层下沉
+    private void pushDown(int k, int dir) {
+        while (2 * k + 1 < size) {
+            // 在孩子和孙子中找到最「极端」的节点
+            // k 的孩子是 2k+1、2k+2，孙子是 4k+3 到 4k+6
+            int m = 2 * k + 1;
+            if (2 * k + 2 < size && compare(2 * k + 2, m, dir) > 0) {
+                m = 2 * k + 2;
+            }
+            int last = Math.min(4 * k + 7, size);
+            for (int i = 4 * k + 3; i < last; i++) {
+                if (compare(i, m, dir) > 0) {
+                    m = i;
+                }
+            }
+
+            if (compare(m, k, dir) <= 0) {
+                return;
+            }
+            swap(m, k);
+
+            if (m <= 2 * k + 2) {
+                // m 是孩子，它下面不会再有问题
+                return;
+            }
+
+            // m 是孙子，交换后它可能和它的父亲（另一种层）顺序不对
+            int p = parent(m);
+            if (compare(m, p, dir) < 0) {
+                swap(m, p);
+            }
+            k = m;
+        }
+    }
+
+    private void swap(int i, int j) {
+        E t = data[i];
+        data[i] = data[j];
+        data[j] = t;
+    }
+}
@@ -0,0 +1,187 @@
+package heap;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import queue.Queue;
+
+/**
+ * MultiQueue
+ * 多个线程可以同时使用的「松弛」优先队列。
+ *
+ * 用一把全局锁保护 PriorityQueue 的话，同一时刻只有一个线程能操作堆，线程再多也只能用到一个核。
+ * MultiQueue 内部有 c * P 个堆（P 是线程数，c 是一个小常数），每个堆各自有一把锁：
+ * 入队：随机选一个堆，tryLock 成功就放进去，失败就换一个；
+ * 出队：随机选两个堆，比较它们的堆顶，从堆顶更大的那个中取出，tryLock 失败也换两个重新选。
+ *
+ * 取出的不一定是全局最大的元素，但是可以证明期望的排名误差是 O(c * P) 的，换来的是几乎线性的扩展性。
+ * 每个堆的堆顶额外保存在一个 volatile 变量中，选堆的时候不需要加锁就能比较。
+ *
+ * 这个队列中的方法：
+ * enqueue、dequeue 可以被多个线程同时调用；
+ * getFront 和 getSize 在并发时只是一个近似值；
+ * dequeue 时如果队列为空（所有堆都为空）抛出异常。
+ */
+public class MultiQueue<E> implements Queue<E> {
+
+    private static class Shard<E> {
+        public ReentrantLock lock;
+        public MaxHeap<E> heap;
+        // 堆顶元素，堆为空时为 null，只在持有锁的时候修改
+        public volatile E top;
+
+        public Shard(Comparator<? super E> comparator) {
+            lock = new ReentrantLock();
+            heap = new MaxHeap<>(comparator);
+            top = null;
+        }
+    }
+
+    private Shard<E>[] shards;
+    private Comparator<? super E> comparator;
+    private LongAdder size;
+
+    /**
+     * 构造函数。
+     *
+     * @param threads    预计同时使用这个队列的线程数 P。
+     * @param c          每个线程对应几个堆，c 越大冲突越少，但排名误差越大，通常取 2 到 4。
+     * @param comparator 比较器，比较器认为最大的元素先出队。
+     */
+    @SuppressWarnings("unchecked")
+    public MultiQueue(int threads, int c, Comparator<? super E> comparator) {
+        if (threads <= 0 || c <= 0) {
+            throw new IllegalArgumentException("threads and c must be positive.");
+        }
+
+        this.comparator = comparator;
+        shards = (Shard<E>[]) new Shard<?>[Math.max(2, threads * c)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard<>(comparator);
+        }
+        size = new LongAdder();
+    }
+
+    /**
+     * 按照自然顺序比较，元素必须实现 Comparable。
+     */
+    public MultiQueue(int threads) {
+        this(threads, 2, MaxHeap.naturalOrder());
+    }
+
+    @Override
+    public int getSize() {
+        return (int) Math.max(0, size.sum());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    @Override
+    public void enqueue(E e) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Shard<E> shard = shards[random.nextInt(shards.length)];
+            if (shard.lock.tryLock()) {
+                try {
+                    shard.heap.add(e);
+                    shard.top = shard.heap.findMax();
+                } finally {
+                    shard.lock.unlock();
+                }
+                size.increment();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public E dequeue() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int misses = 0;
+        while (true) {
+            Shard<E> a = shards[random.nextInt(shards.length)];
+            Shard<E> b = shards[random.nextInt(shards.length)];
+            E topA = a.top;
+            E topB = b.top;
+
+            Shard<E> best;
+            if (topA == null && topB == null) {
+                // 连续很多次都选到空的堆，逐个检查所有的堆
+                if (++misses >= shards.length) {
+                    E ret = dequeueFromAny();
+                    if (ret != null) {
+                        return ret;
+                    }
+                    if (isEmpty()) {
+                        throw new IllegalArgumentException("Cannot dequeue from an empty queue.");
+                    }
+                    misses = 0;
+                }
+                continue;
+            } else if (topA == null) {
+                best = b;
+            } else if (topB == null) {
+                best = a;
+            } else {
+                best = comparator.compare(topA, topB) >= 0 ? a : b;
+            }
+
+            if (best.lock.tryLock()) {
+                try {
+                    // 加锁之前堆可能已经被其他线程取空了
+                    if (!best.heap.isEmpty()) {
+                        return extract(best);
+                    }
+                } finally {
+                    best.lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * 所有堆顶中最大的元素，并发时只是一个近似值。
+     */
+    @Override
+    public E getFront() {
+        E ret = null;
+        for (Shard<E> shard : shards) {
+            E top = shard.top;
+            if (top != null && (ret == null || comparator.compare(top, ret) > 0)) {
+                ret = top;
+            }
+        }
+        if (ret == null) {
+            throw new IllegalArgumentException("Queue is empty.");
+        }
+        return ret;
+    }
+
+    // 逐个加锁检查所有的堆，取出找到的第一个元素，都为空返回 null
+    private E dequeueFromAny() {
+        for (Shard<E> shard : shards) {
+            shard.lock.lock();
+            try {
+                if (!shard.heap.isEmpty()) {
+                    return extract(shard);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    // 需要持有 shard 的锁
+    private E extract(Shard<E> shard) {
+        E ret = shard.heap.extractMax();
+        shard.top = shard.heap.isEmpty() ? null : shard.heap.findMax();
+        size.decrement();
+        return ret;
+    }
+}
@@ -0,0 +1,256 @@
+package heap;
+
+import java.util.Comparator;
+
+import queue.Queue;
+
+/**
+ * PairingHeap
+ * 配对堆，一种可以快速合并的堆。
+ *
+ * 二叉堆用数组表示，两个堆合并只能把一个堆的元素逐个取出再放入另一个堆，O(nlogn)。
+ * 配对堆是一棵多叉树，每个节点都不小于它的孩子（最大堆），用「左孩子右兄弟」的方式存储：
+ * child 指向第一个孩子，sibling 指向下一个兄弟，prev 指向前一个兄弟，第一个孩子的 prev 指向父亲。
+ *
+ * 合并（meld）两棵树只需要比较两个根，把较小的根挂到较大的根下面作为第一个孩子，O(1)；
+ * 添加元素就是和一个只有一个节点的树合并，O(1)；
+ * 取出最大元素时删掉根，把它的孩子两两合并（从左到右），再从右到左依次合并成一棵树，均摊 O(logn)；
+ * 增大某个元素（对于最小堆就是 decrease-key）：把这个节点连同它的子树剪下来，再和根合并，均摊 O(1)（准确的上界是 o(logn)）。
+ *
+ * add 返回一个 Handle，通过它可以修改或者删除对应的元素。
+ *
+ * 这个队列中的方法复杂度（均摊）：
+ * void enqueue(E)     O(1)
+ * E dequeue()         O(logn)
+ * E getFront()        O(1)
+ * meld(other)         O(1)
+ * increaseKey         O(1)
+ * remove(handle)      O(logn)
+ */
+public class PairingHeap<E> implements Queue<E> {
+
+    /**
+     * 堆中元素的句柄。
+     */
+    public static class Handle<E> {
+        private E e;
+        private Handle<E> child, sibling, prev;
+
+        private Handle(E e) {
+            this.e = e;
+            child = null;
+            sibling = null;
+            prev = null;
+        }
+
+        public E getElement() {
+            return e;
+        }
+    }
+
+    private Handle<E> root;
+    private int size;
+    private Comparator<? super E> comparator;
+
+    public PairingHeap(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * 按照自然顺序比较，元素必须实现 Comparable。
+     */
+    public PairingHeap() {
+        this(MaxHeap.naturalOrder());
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void enqueue(E e) {
+        add(e);
+    }
+
+    /**
+     * 添加元素，返回它的句柄。
+     */
+    public Handle<E> add(E e) {
+        Handle<E> node = new Handle<>(e);
+        root = link(root, node);
+        size++;
+        return node;
+    }
+
+    @Override
+    public E getFront() {
+        if (root == null) {
+            throw new IllegalArgumentException("Queue is empty.");
+        }
+        return root.e;
+    }
+
+    @Override
+    public E dequeue() {
+        if (root == null) {
+            throw new IllegalArgumentException("Cannot dequeue from an empty queue.");
+        }
+
+        Handle<E> old = root;
+        root = combineSiblings(old.child);
+        size--;
+
+        old.child = null;
+        return old.e;
+    }
+
+    /**
+     * 把 other 中的所有元素合并到这个堆中，O(1)。合并后 other 为空，other 中元素的句柄仍然有效，之后要在这个堆上使用。
+     * 两个堆必须使用相同的比较规则。
+     */
+    public void meld(PairingHeap<E> other) {
+        if (other == this || other.root == null) {
+            return;
+        }
+
+        root = link(root, other.root);
+        size += other.size;
+        other.root = null;
+        other.size = 0;
+    }
+
+    /**
+     * 把句柄对应的元素修改为一个更大的元素 e。
+     */
+    public void increaseKey(Handle<E> handle, E e) {
+        checkHandle(handle);
+        if (comparator.compare(e, handle.e) < 0) {
+            throw new IllegalArgumentException("New element is smaller than the current element.");
+        }
+
+        handle.e = e;
+        if (handle != root) {
+            cut(handle);
+            root = link(root, handle);
+        }
+    }
+
+    /**
+     * 删除句柄对应的元素。
+     */
+    public E remove(Handle<E> handle) {
+        checkHandle(handle);
+        if (handle == root) {
+            return dequeue();
+        }
+
+        cut(handle);
+        Handle<E> subtree = combineSiblings(handle.child);
+        handle.child = null;
+        root = link(root, subtree);
+        size--;
+        return handle.e;
+    }
+
+    /**
+     * 句柄对应的元素是否还在堆中。
+     * 句柄本身不记录属于哪个堆（否则 meld 时就要逐个修改，不再是 O(1) 了），调用者需要保证句柄是这个堆的。
+     */
+    public boolean contains(Handle<E> handle) {
+        // 除了根节点，堆中每个节点都有 prev
+        return handle == root || handle.prev != null;
+    }
+
+    private void checkHandle(Handle<E> handle) {
+        if (!contains(handle)) {
+            throw new IllegalArgumentException("Handle is not in the heap.");
+        }
+    }
+
+    // 把节点连同它的子树从树上剪下来
+    private void cut(Handle<E> node) {
+        if (node.prev.child == node) {
+            node.prev.child = node.sibling;
+        } else {
+            node.prev.sibling = node.sibling;
+        }
+        if (node.sibling != null) {
+            node.sibling.prev = node.prev;
+        }
+        node.prev = null;
+        node.sibling = null;
+    }
+
+    // 合并两棵树，较小的根成为较大的根的第一个孩子
+    private Handle<E> link(Handle<E> a, Handle<E> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+
+        if (comparator.compare(b.e, a.e) > 0) {
+            Handle<E> t = a;
+            a = b;
+            b = t;
+        }
+
+        b.prev = a;
+        b.sibling = a.child;
+        if (a.child != null) {
+            a.child.prev = b;
+        }
+        a.child = b;
+        a.sibling = null;
+        a.prev = null;
+        return a;
+    }
+
+    // 两趟合并：先从左到右两两合并，再从右到左依次合并
+    private Handle<E> combineSiblings(Handle<E> first) {
+        if (first == null) {
+            return null;
+        }
+
+        // 第一趟，合并的结果用 prev 串成一个反向的链表
+        Handle<E> last = null;
+        Handle<E> cur = first;
+        while (cur != null) {
+            Handle<E> a = cur;
+            Handle<E> b = cur.sibling;
+            cur = b == null ? null : b.sibling;
+
+            a.sibling = null;
+            a.prev = null;
+            if (b != null) {
+                b.sibling = null;
+                b.prev = null;
+            }
+
+            Handle<E> pair = link(a, b);
+            pair.prev = last;
+            last = pair;
+        }
+
+        // 第二趟，从右到左
+        Handle<E> res = last;
+        cur = last.prev;
+        res.prev = null;
+        while (cur != null) {
+            Handle<E> next = cur.prev;
+            cur.prev = null;
+            res = link(res, cur);
+            cur = next;
+        }
+        return res;
+    }
+}
@@ -0,0 +1,10 @@
+package heap;
+
+/**
+ * Priority
+ * 取出元素的 long 类型优先级，RadixHeap 入队时使用，值越小越先出队。
+ */
+public interface Priority<E> {
+
+    long priorityOf(E e);
+}
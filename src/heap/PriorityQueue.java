@@ -1,20 +1,31 @@
 package heap;
 
+import java.util.Comparator;
+
 import queue.Queue;
 
 /**
  * PriorityQueue
  * 
  * 优先队列
+ * 
+ * 默认按照元素的自然顺序，最大的元素先出队；传入 Comparator 时按照比较器，比较器认为最大的元素先出队。
  */
-public class PriorityQueue<E extends Comparable<E>> implements Queue<E> {
+public class PriorityQueue<E> implements Queue<E> {
 
     private MaxHeap<E> maxHeap;
 
+    /**
+     * 按照自然顺序比较的优先队列，元素必须实现 Comparable。
+     */
     public PriorityQueue() {
         maxHeap = new MaxHeap<>();
     }
 
+    public PriorityQueue(Comparator<? super E> comparator) {
+        maxHeap = new MaxHeap<>(comparator);
+    }
+
     @Override
     public int getSize() {
         return maxHeap.size();
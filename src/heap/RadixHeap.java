@@ -0,0 +1,175 @@
+package heap;
+
+import java.util.Arrays;
+
+import queue.Queue;
+
+/**
+ * RadixHeap
+ * 基数堆，优先级为 long 的单调最小优先队列。
+ *
+ * 很多场景下取出的优先级是单调不减的，比如事件模拟（新事件总是发生在当前时间之后）和边权为整数的 Dijkstra，
+ * 这时不需要一个通用的比较堆，只要能够按顺序取出就行了。
+ *
+ * 基数堆记录上一次取出的优先级 last，之后入队的优先级 key 都不小于 last。
+ * 按照 key 和 last 最高的不同的二进制位放进不同的桶：key == last 放进 0 号桶，最高不同位是第 i 位（从 0 开始）放进 i + 1 号桶，一共 65 个桶。
+ * 桶的编号越小，其中的优先级离 last 越近，所以 0 号桶中的元素就是最小的。
+ *
+ * 出队时如果 0 号桶为空，找到第一个不为空的桶 i，在其中找出最小的优先级作为新的 last，
+ * 再把桶 i 中的元素按照新的 last 重新分配，它们都会落到编号小于 i 的桶里（至少最小的那个会落到 0 号桶）。
+ * 每个元素只会向编号更小的桶移动，最多移动 64 次，所以均摊复杂度是 O(log C)，C 是优先级的范围。
+ *
+ * 每个桶用两个平行的数组存放优先级和元素，不需要为每个元素创建节点。
+ * 优先级可以是负数，内部翻转符号位后按照无符号数处理。
+ *
+ * 这个队列中的方法复杂度（均摊）：
+ * void enqueue(E)     O(1)
+ * E dequeue()         O(log C)
+ * E getFront()        0 号桶不为空时 O(1)，否则 O(第一个不为空的桶的大小)
+ *
+ * getFront 只是查看，不会重新分配桶，也不会改变 last，所以查看之后仍然可以入队不小于上一次出队的优先级的元素。
+ */
+public class RadixHeap<E> implements Queue<E> {
+
+    private Priority<? super E> priority;
+    private long[][] keys;
+    private Object[][] elements;
+    private int[] sizes;
+    private long last;
+    private int size;
+
+    public RadixHeap(Priority<? super E> priority) {
+        this.priority = priority;
+        keys = new long[65][];
+        elements = new Object[65][];
+        sizes = new int[65];
+        for (int i = 0; i < 65; i++) {
+            keys[i] = new long[4];
+            elements[i] = new Object[4];
+        }
+        last = 0;
+        size = 0;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 上一次出队的元素的优先级，入队的优先级不能比它小。
+     */
+    public long getLast() {
+        return last ^ Long.MIN_VALUE;
+    }
+
+    @Override
+    public void enqueue(E e) {
+        long key = priority.priorityOf(e) ^ Long.MIN_VALUE;
+        if (Long.compareUnsigned(key, last) < 0) {
+            throw new IllegalArgumentException("Priority is smaller than the last dequeued priority.");
+        }
+
+        put(bucket(key), key, e);
+        size++;
+    }
+
+    @Override
+    public E getFront() {
+        if (size == 0) {
+            throw new IllegalArgumentException("Queue is empty.");
+        }
+        if (sizes[0] > 0) {
+            return element(0, sizes[0] - 1);
+        }
+
+        // 不重新分配：重新分配会把 last 提高到这个桶中最小的优先级，之后比它小但是合法的优先级就不能入队了
+        int b = firstNonEmptyBucket();
+        long[] bucketKeys = keys[b];
+        // 优先级相同时取最后一个：重新分配时按顺序放进 0 号桶，dequeue 从 0 号桶的末尾取，取到的是最后一个
+        int min = 0;
+        for (int i = 1; i < sizes[b]; i++) {
+            if (Long.compareUnsigned(bucketKeys[i], bucketKeys[min]) <= 0) {
+                min = i;
+            }
+        }
+        return element(b, min);
+    }
+
+    @Override
+    public E dequeue() {
+        if (size == 0) {
+            throw new IllegalArgumentException("Cannot dequeue from an empty queue.");
+        }
+        pull();
+
+        int i = --sizes[0];
+        E ret = element(0, i);
+        elements[0][i] = null;
+        size--;
+        return ret;
+    }
+
+    // 保证 0 号桶不为空：找到第一个不为空的桶，用其中最小的优先级作为 last 重新分配
+    private void pull() {
+        if (sizes[0] > 0) {
+            return;
+        }
+
+        int b = firstNonEmptyBucket();
+        long[] bucketKeys = keys[b];
+        Object[] bucketElements = elements[b];
+        int n = sizes[b];
+
+        long min = bucketKeys[0];
+        for (int i = 1; i < n; i++) {
+            if (Long.compareUnsigned(bucketKeys[i], min) < 0) {
+                min = bucketKeys[i];
+            }
+        }
+        last = min;
+
+        // 先把桶清空，重新分配的元素都会落到编号更小的桶中，不会再放回这个桶
+        sizes[b] = 0;
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked")
+            E e = (E) bucketElements[i];
+            put(bucket(bucketKeys[i]), bucketKeys[i], e);
+            bucketElements[i] = null;
+        }
+    }
+
+    private int firstNonEmptyBucket() {
+        int b = 1;
+        while (sizes[b] == 0) {
+            b++;
+        }
+        return b;
+    }
+
+    // key 和 last 最高的不同位决定放进哪个桶
+    private int bucket(long key) {
+        return 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void put(int b, long key, E e) {
+        int n = sizes[b];
+        if (n == keys[b].length) {
+            keys[b] = Arrays.copyOf(keys[b], n * 2);
+            elements[b] = Arrays.copyOf(elements[b], n * 2);
+        }
+        keys[b][n] = key;
+        elements[b][n] = e;
+        sizes[b] = n + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E element(int b, int i) {
+        return (E) elements[b][i];
+    }
+}
@@ -0,0 +1,105 @@
+package heap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * TopK
+ * 在数据流中选出最大的 k 个元素。
+ *
+ * 如果把所有元素都放进 MaxHeap 再取出前 k 个，需要 O(n) 的内存，时间是 O(nlogn)。
+ * 其实只需要维护一个大小为 k 的堆，堆顶是目前选出的 k 个元素中最小的那个：
+ * 新元素比堆顶小，直接丢弃；比堆顶大，就用 replace 把堆顶替换掉，只需要一次下沉。
+ * 这样内存是 O(k)，时间是 O(nlogk)，而且大部分元素只和堆顶比较一次就被丢弃了。
+ *
+ * 实现上就是一个按相反顺序比较的 MaxHeap，「最大」的元素就是最小的元素。
+ *
+ * 两个 TopK 可以合并，所以可以把数据分成多份并行地选，最后再合并，collector 返回的 Collector 就是这样用于并行流的。
+ */
+public class TopK<E> {
+
+    private int k;
+    private Comparator<? super E> comparator;
+    private MaxHeap<E> heap;
+
+    /**
+     * 构造函数。
+     *
+     * @param k          选出多少个元素。
+     * @param comparator 按照这个比较器选出最大的 k 个元素。
+     */
+    public TopK(int k, Comparator<? super E> comparator) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive.");
+        }
+
+        this.k = k;
+        this.comparator = comparator;
+        heap = new MaxHeap<E>(k, (a, b) -> comparator.compare(b, a));
+    }
+
+    /**
+     * 按照自然顺序选出最大的 k 个元素，元素必须实现 Comparable。
+     */
+    public TopK(int k) {
+        this(k, MaxHeap.naturalOrder());
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * 处理数据流中的一个元素。
+     */
+    public void offer(E e) {
+        if (heap.size() < k) {
+            heap.add(e);
+        } else if (comparator.compare(e, heap.findMax()) > 0) {
+            heap.replace(e);
+        }
+    }
+
+    /**
+     * 把另一个 TopK 选出的元素合并进来，合并后 other 为空。
+     */
+    public TopK<E> merge(TopK<E> other) {
+        while (!other.heap.isEmpty()) {
+            offer(other.heap.extractMax());
+        }
+        return this;
+    }
+
+    /**
+     * 目前选出的元素，从大到小排列。
+     */
+    public List<E> toSortedList() {
+        ArrayList<E> res = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            res.add(heap.extractMax());
+        }
+        for (E e : res) {
+            heap.add(e);
+        }
+
+        // 堆中取出的顺序是从小到大
+        ArrayList<E> reversed = new ArrayList<>(res.size());
+        for (int i = res.size() - 1; i >= 0; i--) {
+            reversed.add(res.get(i));
+        }
+        return reversed;
+    }
+
+    /**
+     * 用于 Stream 的 Collector，比如 stream.collect(TopK.collector(100, comparator))，结果从大到小排列。
+     */
+    public static <E> Collector<E, ?, List<E>> collector(int k, Comparator<? super E> comparator) {
+        return Collector.of(() -> new TopK<E>(k, comparator), TopK::offer, TopK::merge, TopK::toSortedList);
+    }
+}
@@ -1,5 +1,8 @@
 package linkedlist;
 
+import forkjoin.ForkJoinScheduler;
+import forkjoin.Task;
+
 /**
  * Sum
  * 通过数组求和来讲解递归。
@@ -19,6 +22,47 @@ public class Sum {
         return arr[l] + sum(arr, l + 1);
     }
 
+    /**
+     * 并行求和。
+     * 上面的递归每次只减少一个元素，递归深度是 n，没法拆分给多个线程。
+     * 改为每次把区间一分为二，左右两半的和可以分别交给不同的线程计算，递归深度只有 logn。
+     */
+    public static int sum(int[] arr, ForkJoinScheduler scheduler) {
+        return scheduler.invoke(new SumTask(arr, 0, arr.length));
+    }
+
+    // 区间元素个数小于这个值就不再拆分，直接循环求和
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    // 计算 arr[l...r) 这个区间中数字的和
+    private static class SumTask extends Task<Integer> {
+        private int[] arr;
+        private int l, r;
+
+        public SumTask(int[] arr, int l, int r) {
+            this.arr = arr;
+            this.l = l;
+            this.r = r;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (r - l <= PARALLEL_THRESHOLD) {
+                int res = 0;
+                for (int i = l; i < r; i++) {
+                    res += arr[i];
+                }
+                return res;
+            }
+
+            int mid = l + (r - l) / 2;
+            SumTask left = new SumTask(arr, l, mid);
+            left.fork();
+            int rightSum = new SumTask(arr, mid, r).compute();
+            return left.join() + rightSum;
+        }
+    }
+
     public static void main(String[] args) {
         int[] nums = { 1, 2, 3, 4, 5, 6, 7, 8 };
         System.out.println(sum(nums));
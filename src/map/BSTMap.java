@@ -49,9 +49,9 @@ public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
         }
 
         if (key.compareTo(node.key) < 0) {
-            node.left = add(node, key, value);
+            node.left = add(node.left, key, value);
         } else if (key.compareTo(node.key) > 0) {
-            node.right = add(node, key, value);
+            node.right = add(node.right, key, value);
         } else {
             node.value = value;
         }
@@ -135,7 +135,7 @@ public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
             node.left = remove(node.left, key);
             return node;
         } else if (key.compareTo(node.key) > 0) {
-            node.left = remove(node.right, key);
+            node.right = remove(node.right, key);
             return node;
         } else {
             // 待删除节点右子树为空
@@ -0,0 +1,310 @@
+package map;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Int2IntHashMap
+ * 键和值都是 int 的哈希表，不装箱。用来计数时 addTo 一次查找就完成了「取出、加一、放回」。
+ *
+ * 使用线性探测的开放寻址，键和值分别放在两个 int 数组中，一个键值对只占 8 个字节，
+ * 而 HashMap<Integer, Integer> 的一个键值对有一个节点和两个 Integer 对象，大约 60 多个字节，并且散落在堆中。
+ * 键 0 表示空位置，所以键 0 本身不放在数组中，单独用 hasZeroKey 和 zeroValue 记录。
+ * 删除使用后移，不留墓碑：删掉一个位置之后，往后找家不在 (空位, 当前位置] 之间的元素挪到空位，直到遇到空位置为止。
+ * 扩容时一次性地把所有元素放到两倍大小的新数组中。
+ */
+public class Int2IntHashMap {
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int shift;
+
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    private int size;
+    private double loadFactor;
+    private int threshold;
+
+    /**
+     * 构造函数。
+     *
+     * @param capacity   预计的元素个数，数组的大小取能放下这么多元素的 2 的幂。
+     * @param loadFactor 装载因子，在 0 和 1 之间（不包括 0 和 1）。
+     */
+    public Int2IntHashMap(int capacity, double loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor must be between 0 and 1.");
+        }
+
+        this.loadFactor = loadFactor;
+        int n = 8;
+        while (n < capacity / loadFactor && n < (1 << 30)) {
+            n <<= 1;
+        }
+        allocate(n);
+        size = 0;
+    }
+
+    public Int2IntHashMap(int capacity) {
+        this(capacity, 0.75);
+    }
+
+    public Int2IntHashMap() {
+        this(16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        threshold = (int) (capacity * loadFactor);
+    }
+
+    // 乘以黄金分割数之后取高位作为家的位置
+    private int home(int key) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    // 键所在的位置，不存在时返回 -(应该插入的位置) - 1
+    private int find(int key) {
+        int i = home(key);
+        while (true) {
+            int k = keys[i];
+            if (k == key) {
+                return i;
+            }
+            if (k == 0) {
+                return -i - 1;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+
+        int i = find(key);
+        return i >= 0 ? values[i] : defaultValue;
+    }
+
+    /**
+     * 添加键值对，键已经存在时更新值。
+     */
+    public void add(int key, int value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+
+        int i = find(key);
+        if (i >= 0) {
+            values[i] = value;
+        } else {
+            insertAt(-i - 1, key, value);
+        }
+    }
+
+    /**
+     * 把键对应的值加上 delta，键不存在时当作 0，返回加过之后的值。只查找一次。
+     */
+    public int addTo(int key, int delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                zeroValue = 0;
+                size++;
+            }
+            return zeroValue += delta;
+        }
+
+        int i = find(key);
+        if (i >= 0) {
+            return values[i] += delta;
+        }
+        insertAt(-i - 1, key, delta);
+        return delta;
+    }
+
+    /**
+     * 键存在时返回它的值；不存在时用 mapping 计算出值，放入之后返回。
+     */
+    public int computeIfAbsent(int key, IntUnaryOperator mapping) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                int value = mapping.applyAsInt(key);
+                hasZeroKey = true;
+                zeroValue = value;
+                size++;
+            }
+            return zeroValue;
+        }
+
+        int i = find(key);
+        if (i >= 0) {
+            return values[i];
+        }
+        int value = mapping.applyAsInt(key);
+        insertAt(-i - 1, key, value);
+        return value;
+    }
+
+    /**
+     * 删除键，返回键是否存在。
+     */
+    public boolean remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            size--;
+            return true;
+        }
+
+        int i = find(key);
+        if (i < 0) {
+            return false;
+        }
+        removeAt(i);
+        size--;
+        return true;
+    }
+
+    /**
+     * 所有的键，顺序不确定。
+     */
+    public int[] keys() {
+        int[] ret = new int[size];
+        int n = 0;
+        if (hasZeroKey) {
+            ret[n++] = 0;
+        }
+        for (int k : keys) {
+            if (k != 0) {
+                ret[n++] = k;
+            }
+        }
+        return ret;
+    }
+
+    private void insertAt(int i, int key, int value) {
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        if (size > threshold) {
+            resize(2 * keys.length);
+        }
+    }
+
+    // 删除位置 i，把后面家不在 (i, j] 中的元素挪过来
+    private void removeAt(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            int k = keys[j];
+            if (k == 0) {
+                break;
+            }
+
+            int h = home(k);
+            boolean stay = i <= j ? (i < h && h <= j) : (i < h || h <= j);
+            if (!stay) {
+                keys[i] = k;
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = 0;
+    }
+
+    private void resize(int newCapacity) {
+        if (keys.length == 1 << 30) {
+            throw new IllegalArgumentException("Map is full.");
+        }
+
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int k = oldKeys[i];
+            if (k != 0) {
+                int j = home(k);
+                while (keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = k;
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * 把这个哈希表包装成 map.Map，读写的都是这个哈希表，每次调用都要装箱，适合不在乎性能的地方。
+     */
+    public Map<Integer, Integer> asMap() {
+        return new Map<Integer, Integer>() {
+            @Override
+            public void add(Integer key, Integer value) {
+                Int2IntHashMap.this.add(key, value);
+            }
+
+            @Override
+            public Integer remove(Integer key) {
+                Integer ret = get(key);
+                Int2IntHashMap.this.remove(key);
+                return ret;
+            }
+
+            @Override
+            public boolean contains(Integer key) {
+                return Int2IntHashMap.this.contains(key);
+            }
+
+            @Override
+            public Integer get(Integer key) {
+                return Int2IntHashMap.this.contains(key) ? getOrDefault(key, 0) : null;
+            }
+
+            @Override
+            public void set(Integer key, Integer newValue) {
+                if (!Int2IntHashMap.this.contains(key)) {
+                    throw new IllegalArgumentException(key + " doesn't exist!");
+                }
+                Int2IntHashMap.this.add(key, newValue);
+            }
+
+            @Override
+            public int getSize() {
+                return size;
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return size == 0;
+            }
+        };
+    }
+}
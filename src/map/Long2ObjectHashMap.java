@@ -0,0 +1,295 @@
+package map;
+
+import java.util.function.LongFunction;
+
+/**
+ * Long2ObjectHashMap
+ * 键是 long 的哈希表，键不装箱，值是对象。和 Int2IntHashMap 一样使用线性探测和后移删除，键 0 单独记录。
+ */
+public class Long2ObjectHashMap<V> {
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int shift;
+
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    private int size;
+    private double loadFactor;
+    private int threshold;
+
+    /**
+     * 构造函数。
+     *
+     * @param capacity   预计的元素个数，数组的大小取能放下这么多元素的 2 的幂。
+     * @param loadFactor 装载因子，在 0 和 1 之间（不包括 0 和 1）。
+     */
+    public Long2ObjectHashMap(int capacity, double loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor must be between 0 and 1.");
+        }
+
+        this.loadFactor = loadFactor;
+        int n = 8;
+        while (n < capacity / loadFactor && n < (1 << 30)) {
+            n <<= 1;
+        }
+        allocate(n);
+        size = 0;
+    }
+
+    public Long2ObjectHashMap(int capacity) {
+        this(capacity, 0.75);
+    }
+
+    public Long2ObjectHashMap() {
+        this(16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        threshold = (int) (capacity * loadFactor);
+    }
+
+    private int home(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    // 键所在的位置，不存在时返回 -(应该插入的位置) - 1
+    private int find(long key) {
+        int i = home(key);
+        while (true) {
+            long k = keys[i];
+            if (k == key) {
+                return i;
+            }
+            if (k == 0) {
+                return -i - 1;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    /**
+     * 键对应的值，不存在时返回 null。
+     */
+    public V get(long key) {
+        return getOrDefault(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(long key, V defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+
+        int i = find(key);
+        return i >= 0 ? (V) values[i] : defaultValue;
+    }
+
+    /**
+     * 添加键值对，键已经存在时更新值。
+     */
+    public void add(long key, V value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+
+        int i = find(key);
+        if (i >= 0) {
+            values[i] = value;
+        } else {
+            insertAt(-i - 1, key, value);
+        }
+    }
+
+    /**
+     * 键存在时返回它的值；不存在时用 mapping 计算出值，放入之后返回。
+     * 常用来给每个键挂一个容器：map.computeIfAbsent(id, k -> new ArrayList<>()).add(x)。
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key, LongFunction<? extends V> mapping) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                V value = mapping.apply(key);
+                hasZeroKey = true;
+                zeroValue = value;
+                size++;
+            }
+            return zeroValue;
+        }
+
+        int i = find(key);
+        if (i >= 0) {
+            return (V) values[i];
+        }
+        V value = mapping.apply(key);
+        insertAt(-i - 1, key, value);
+        return value;
+    }
+
+    /**
+     * 删除键，返回原来的值，不存在时返回 null。
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return null;
+            }
+            V ret = zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            size--;
+            return ret;
+        }
+
+        int i = find(key);
+        if (i < 0) {
+            return null;
+        }
+        V ret = (V) values[i];
+        removeAt(i);
+        size--;
+        return ret;
+    }
+
+    /**
+     * 所有的键，顺序不确定。
+     */
+    public long[] keys() {
+        long[] ret = new long[size];
+        int n = 0;
+        if (hasZeroKey) {
+            ret[n++] = 0;
+        }
+        for (long k : keys) {
+            if (k != 0) {
+                ret[n++] = k;
+            }
+        }
+        return ret;
+    }
+
+    private void insertAt(int i, long key, V value) {
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        if (size > threshold) {
+            resize(2 * keys.length);
+        }
+    }
+
+    // 删除位置 i，把后面家不在 (i, j] 中的元素挪过来
+    private void removeAt(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            long k = keys[j];
+            if (k == 0) {
+                break;
+            }
+
+            int h = home(k);
+            boolean stay = i <= j ? (i < h && h <= j) : (i < h || h <= j);
+            if (!stay) {
+                keys[i] = k;
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = 0;
+        values[i] = null;
+    }
+
+    private void resize(int newCapacity) {
+        if (keys.length == 1 << 30) {
+            throw new IllegalArgumentException("Map is full.");
+        }
+
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if (k != 0) {
+                int j = home(k);
+                while (keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = k;
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * 把这个哈希表包装成 map.Map，读写的都是这个哈希表，每次调用键都要装箱。
+     */
+    public Map<Long, V> asMap() {
+        return new Map<Long, V>() {
+            @Override
+            public void add(Long key, V value) {
+                Long2ObjectHashMap.this.add(key, value);
+            }
+
+            @Override
+            public V remove(Long key) {
+                return Long2ObjectHashMap.this.remove(key);
+            }
+
+            @Override
+            public boolean contains(Long key) {
+                return Long2ObjectHashMap.this.contains(key);
+            }
+
+            @Override
+            public V get(Long key) {
+                return Long2ObjectHashMap.this.get(key);
+            }
+
+            @Override
+            public void set(Long key, V newValue) {
+                if (!Long2ObjectHashMap.this.contains(key)) {
+                    throw new IllegalArgumentException(key + " doesn't exist!");
+                }
+                Long2ObjectHashMap.this.add(key, newValue);
+            }
+
+            @Override
+            public int getSize() {
+                return size;
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return size == 0;
+            }
+        };
+    }
+}
@@ -1,5 +1,12 @@
 package map;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import avltree.AVLMap;
+import avltree.FileOperation;
+
 /**
  * Main
  * 
@@ -12,10 +19,150 @@ package map;
  * 改set               O(n)             O(h)    O(logn)      O(n)
  * 查get               O(n)             O(h)    O(logn)      O(n)
  * 查contains          O(n)             O(h)    O(logn)      O(n)
+ *
+ * 哈希表实现的 RobinHoodHashMap 增删改查平均都是 O(1)，但是键是无序的。
+ * 键或者值是基本类型时，Int2IntHashMap、Long2ObjectHashMap、Object2IntHashMap 不装箱，计数时用 addTo 只查找一次。
  */
 public class Main {
 
+    /**
+     * 计数的对比，一共 updates 次更新：
+     * 1. 单词计数，反复地统计 words 中的单词；
+     * 2. 整数直方图，键是 [0, 2^20) 中的随机数；
+     * 3. 按 long 的 id 分组计数，每个 id 对应一个计数器对象。
+     */
+    private static void compareCounters(ArrayList<String> words, int updates) {
+        long startTime = System.nanoTime();
+        HashMap<String, Integer> wordMap = new HashMap<>();
+        for (int i = 0; i < updates; i++) {
+            String word = words.get(i % words.size());
+            Integer count = wordMap.get(word);
+            wordMap.put(word, count == null ? 1 : count + 1);
+        }
+        System.out.println("Word count, HashMap get/put: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        HashMap<String, Integer> mergeMap = new HashMap<>();
+        for (int i = 0; i < updates; i++) {
+            mergeMap.merge(words.get(i % words.size()), 1, Integer::sum);
+        }
+        System.out.println("Word count, HashMap merge: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        Object2IntHashMap<String> wordCounter = new Object2IntHashMap<>();
+        for (int i = 0; i < updates; i++) {
+            wordCounter.addTo(words.get(i % words.size()), 1);
+        }
+        System.out.println("Word count, Object2IntHashMap addTo: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        if (wordCounter.size() != wordMap.size()
+                || wordCounter.getOrDefault("pride", 0) != wordMap.get("pride")
+                || wordCounter.getOrDefault("pride", 0) != mergeMap.get("pride")) {
+            throw new IllegalArgumentException("Error");
+        }
+
+        // 事先生成随机数，不计入时间
+        Random random = new Random();
+        int[] keys = new int[1 << 24];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(1 << 20);
+        }
+
+        startTime = System.nanoTime();
+        HashMap<Integer, Integer> histogram = new HashMap<>();
+        for (int i = 0; i < updates; i++) {
+            histogram.merge(keys[i & (keys.length - 1)], 1, Integer::sum);
+        }
+        System.out.println("Histogram, HashMap merge: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        Int2IntHashMap intHistogram = new Int2IntHashMap();
+        for (int i = 0; i < updates; i++) {
+            intHistogram.addTo(keys[i & (keys.length - 1)], 1);
+        }
+        System.out.println("Histogram, Int2IntHashMap addTo: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        if (intHistogram.size() != histogram.size() || intHistogram.getOrDefault(keys[0], 0) != histogram.get(keys[0])) {
+            throw new IllegalArgumentException("Error");
+        }
+        histogram = null;
+        intHistogram = null;
+
+        startTime = System.nanoTime();
+        HashMap<Long, int[]> groups = new HashMap<>();
+        for (int i = 0; i < updates; i++) {
+            groups.computeIfAbsent((long) keys[i & (keys.length - 1)] << 32, k -> new int[1])[0]++;
+        }
+        System.out.println("Group by id, HashMap computeIfAbsent: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        startTime = System.nanoTime();
+        Long2ObjectHashMap<int[]> longGroups = new Long2ObjectHashMap<>();
+        for (int i = 0; i < updates; i++) {
+            longGroups.computeIfAbsent((long) keys[i & (keys.length - 1)] << 32, k -> new int[1])[0]++;
+        }
+        System.out.println("Group by id, Long2ObjectHashMap computeIfAbsent: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        long key = (long) keys[0] << 32;
+        if (longGroups.size() != groups.size() || longGroups.get(key)[0] != groups.get(key)[0]) {
+            throw new IllegalArgumentException("Error");
+        }
+    }
+
+    // 统计 rounds 遍单词的词频
+    private static double testMap(Map<String, Integer> map, ArrayList<String> words, int rounds) {
+        long startTime = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (String word : words) {
+                if (map.contains(word)) {
+                    map.set(word, map.get(word) + 1);
+                } else {
+                    map.add(word, 1);
+                }
+            }
+        }
+        return (System.nanoTime() - startTime) / 1_000_000_000.0;
+    }
+
     public static void main(String[] args) {
-        
+        ArrayList<String> words = new ArrayList<>();
+        if (!FileOperation.readFile("pride-and-prejudice.txt", words)) {
+            return;
+        }
+        int rounds = 20;
+        System.out.println("Pride and Prejudice, total words: " + words.size() + ", " + rounds + " rounds");
+
+        BSTMap<String, Integer> bstMap = new BSTMap<>();
+        System.out.println("BSTMap: " + testMap(bstMap, words, rounds) + "s");
+
+        AVLMap<String, Integer> avlMap = new AVLMap<>();
+        System.out.println("AVLMap: " + testMap(avlMap, words, rounds) + "s");
+
+        RobinHoodHashMap<String, Integer> robinHoodMap = new RobinHoodHashMap<>();
+        System.out.println("RobinHoodHashMap: " + testMap(robinHoodMap, words, rounds) + "s");
+
+        long startTime = System.nanoTime();
+        HashMap<String, Integer> hashMap = new HashMap<>();
+        for (int r = 0; r < rounds; r++) {
+            for (String word : words) {
+                if (hashMap.containsKey(word)) {
+                    hashMap.put(word, hashMap.get(word) + 1);
+                } else {
+                    hashMap.put(word, 1);
+                }
+            }
+        }
+        System.out.println("java.util.HashMap: " + (System.nanoTime() - startTime) / 1_000_000_000.0 + "s");
+
+        if (bstMap.getSize() != hashMap.size() || avlMap.getSize() != hashMap.size()
+                || robinHoodMap.getSize() != hashMap.size()
+                || !robinHoodMap.get("pride").equals(hashMap.get("pride"))
+                || !bstMap.get("prejudice").equals(hashMap.get("prejudice"))) {
+            throw new IllegalArgumentException("Error");
+        }
+        System.out.println("Total different words: " + robinHoodMap.getSize() + ", frequency of PRIDE: "
+                + robinHoodMap.get("pride") / rounds);
+        System.out.println();
+
+        compareCounters(words, 100_000_000);
     }
 } 
\ No newline at end of file
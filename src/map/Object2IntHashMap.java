@@ -0,0 +1,276 @@
+package map;
+
+import java.util.ArrayList;
+import java.util.function.ToIntFunction;
+
+/**
+ * Object2IntHashMap
+ * 值是 int 的哈希表，值不装箱，适合计数：map.addTo(word, 1)。
+ * 和 Int2IntHashMap 一样使用线性探测和后移删除，null 表示空位置，所以键不能是 null。
+ * 另外存下每个键的哈希值，探测时先比较哈希值，不相等就不用调用 equals。
+ */
+public class Object2IntHashMap<K> {
+
+    private Object[] keys;
+    private int[] values;
+    private int[] hashes;
+    private int mask;
+    private int shift;
+
+    private int size;
+    private double loadFactor;
+    private int threshold;
+
+    /**
+     * 构造函数。
+     *
+     * @param capacity   预计的元素个数，数组的大小取能放下这么多元素的 2 的幂。
+     * @param loadFactor 装载因子，在 0 和 1 之间（不包括 0 和 1）。
+     */
+    public Object2IntHashMap(int capacity, double loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor must be between 0 and 1.");
+        }
+
+        this.loadFactor = loadFactor;
+        int n = 8;
+        while (n < capacity / loadFactor && n < (1 << 30)) {
+            n <<= 1;
+        }
+        allocate(n);
+        size = 0;
+    }
+
+    public Object2IntHashMap(int capacity) {
+        this(capacity, 0.75);
+    }
+
+    public Object2IntHashMap() {
+        this(16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        threshold = (int) (capacity * loadFactor);
+    }
+
+    private static int hash(Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key can not be null.");
+        }
+        return key.hashCode() * 0x9E3779B9;
+    }
+
+    private int home(int hash) {
+        return hash >>> shift;
+    }
+
+    // 键所在的位置，不存在时返回 -(应该插入的位置) - 1
+    private int find(Object key, int hash) {
+        int i = home(hash);
+        while (true) {
+            Object k = keys[i];
+            if (k == null) {
+                return -i - 1;
+            }
+            if (hashes[i] == hash && key.equals(k)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(K key) {
+        return find(key, hash(key)) >= 0;
+    }
+
+    public int getOrDefault(K key, int defaultValue) {
+        int i = find(key, hash(key));
+        return i >= 0 ? values[i] : defaultValue;
+    }
+
+    /**
+     * 添加键值对，键已经存在时更新值。
+     */
+    public void add(K key, int value) {
+        int hash = hash(key);
+        int i = find(key, hash);
+        if (i >= 0) {
+            values[i] = value;
+        } else {
+            insertAt(-i - 1, key, value, hash);
+        }
+    }
+
+    /**
+     * 把键对应的值加上 delta，键不存在时当作 0，返回加过之后的值。只查找一次。
+     */
+    public int addTo(K key, int delta) {
+        int hash = hash(key);
+        int i = find(key, hash);
+        if (i >= 0) {
+            return values[i] += delta;
+        }
+        insertAt(-i - 1, key, delta, hash);
+        return delta;
+    }
+
+    /**
+     * 键存在时返回它的值；不存在时用 mapping 计算出值，放入之后返回。
+     */
+    public int computeIfAbsent(K key, ToIntFunction<? super K> mapping) {
+        int hash = hash(key);
+        int i = find(key, hash);
+        if (i >= 0) {
+            return values[i];
+        }
+        int value = mapping.applyAsInt(key);
+        insertAt(-i - 1, key, value, hash);
+        return value;
+    }
+
+    /**
+     * 删除键，返回键是否存在。
+     */
+    public boolean remove(K key) {
+        int i = find(key, hash(key));
+        if (i < 0) {
+            return false;
+        }
+        removeAt(i);
+        size--;
+        return true;
+    }
+
+    /**
+     * 所有的键，顺序不确定。
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<K> keys() {
+        ArrayList<K> ret = new ArrayList<>(size);
+        for (Object k : keys) {
+            if (k != null) {
+                ret.add((K) k);
+            }
+        }
+        return ret;
+    }
+
+    private void insertAt(int i, K key, int value, int hash) {
+        keys[i] = key;
+        values[i] = value;
+        hashes[i] = hash;
+        size++;
+        if (size > threshold) {
+            resize(2 * keys.length);
+        }
+    }
+
+    // 删除位置 i，把后面家不在 (i, j] 中的元素挪过来
+    private void removeAt(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            Object k = keys[j];
+            if (k == null) {
+                break;
+            }
+
+            int h = home(hashes[j]);
+            boolean stay = i <= j ? (i < h && h <= j) : (i < h || h <= j);
+            if (!stay) {
+                keys[i] = k;
+                values[i] = values[j];
+                hashes[i] = hashes[j];
+                i = j;
+            }
+        }
+        keys[i] = null;
+    }
+
+    private void resize(int newCapacity) {
+        if (keys.length == 1 << 30) {
+            throw new IllegalArgumentException("Map is full.");
+        }
+
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldHashes = hashes;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int j = home(oldHashes[i]);
+                while (keys[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+                hashes[j] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * 把这个哈希表包装成 map.Map，读写的都是这个哈希表，每次调用值都要装箱。
+     */
+    public Map<K, Integer> asMap() {
+        return new Map<K, Integer>() {
+            @Override
+            public void add(K key, Integer value) {
+                Object2IntHashMap.this.add(key, value);
+            }
+
+            @Override
+            public Integer remove(K key) {
+                Integer ret = get(key);
+                Object2IntHashMap.this.remove(key);
+                return ret;
+            }
+
+            @Override
+            public boolean contains(K key) {
+                return Object2IntHashMap.this.contains(key);
+            }
+
+            @Override
+            public Integer get(K key) {
+                int i = find(key, hash(key));
+                return i >= 0 ? values[i] : null;
+            }
+
+            @Override
+            public void set(K key, Integer newValue) {
+                int i = find(key, hash(key));
+                if (i < 0) {
+                    throw new IllegalArgumentException(key + " doesn't exist!");
+                }
+                values[i] = newValue;
+            }
+
+            @Override
+            public int getSize() {
+                return size;
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return size == 0;
+            }
+        };
+    }
+}
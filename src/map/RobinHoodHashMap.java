@@ -0,0 +1,328 @@
+package map;
+
+/**
+ * RobinHoodHashMap
+ * 开放寻址的哈希表，使用 Robin Hood 线性探测，增删改查的平均复杂度都是 O(1)。
+ *
+ * 开放寻址：所有的键值对都直接存放在数组中，没有链表节点，键 key 从它的「家」home(key) 开始往后找空位。
+ * 一个元素离家的距离叫做探测长度（probe sequence length，psl）。
+ *
+ * Robin Hood（劫富济贫）：插入时如果遇到的元素离家比正在插入的元素近（更「富」），就和它交换位置，
+ * 带着被换出来的元素继续往后找。这样每一段连续的元素都按照家的位置排好序，探测长度的方差很小，装载因子到 0.9 也不会变慢；
+ * 查找时如果遇到的元素的探测长度比已经走过的距离小，要找的键就不可能在后面，可以提前结束，所以查找不存在的键也很快。
+ *
+ * 删除使用后移（backward shift）：删掉一个元素之后，把后面探测长度大于 0 的元素依次往前挪一格，
+ * 不需要留下「已删除」的墓碑，表中始终没有墓碑，不会因为删除越来越慢。
+ *
+ * 扩容是渐进的：元素个数超过阈值时分配两倍大小的新表，之后每次添加或删除时顺带把旧表的一部分搬到新表，
+ * 不会有某一次操作因为要搬整张表而特别慢。搬的过程中查找两张表都要看。
+ * 旧表按照「一整段连续的元素」为单位搬，搬过的位置直接清空，没有搬的部分仍然满足 Robin Hood 的性质，可以正常查找和删除。
+ */
+public class RobinHoodHashMap<K, V> implements Map<K, V> {
+
+    // 每次添加或删除时至少从旧表搬走的位置个数
+    private static final int MIGRATE_STEP = 16;
+
+    private class Table {
+        public Object[] keys;
+        public Object[] values;
+        // 键的哈希值，0 表示这个位置是空的
+        public int[] hashes;
+        public int mask;
+        private int shift;
+
+        public Table(int capacity) {
+            keys = new Object[capacity];
+            values = new Object[capacity];
+            hashes = new int[capacity];
+            mask = capacity - 1;
+            shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        }
+
+        // 使用哈希值的高位作为家的位置
+        public int home(int hash) {
+            return hash >>> shift;
+        }
+
+        // 位置 i 上的元素的探测长度
+        public int psl(int i) {
+            return (i - home(hashes[i])) & mask;
+        }
+
+        // 键所在的位置，不存在时返回 -1
+        public int find(Object key, int hash) {
+            int i = home(hash);
+            for (int dist = 0; ; dist++) {
+                int h = hashes[i];
+                if (h == 0 || psl(i) < dist) {
+                    return -1;
+                }
+                if (h == hash && key.equals(keys[i])) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        // 插入一个表中没有的键
+        public void insert(Object key, Object value, int hash) {
+            int i = home(hash);
+            int dist = 0;
+            while (hashes[i] != 0) {
+                int d = psl(i);
+                if (d < dist) {
+                    // 这里的元素比手上的富，交换之后带着它继续找
+                    Object k = keys[i];
+                    Object v = values[i];
+                    int h = hashes[i];
+                    keys[i] = key;
+                    values[i] = value;
+                    hashes[i] = hash;
+                    key = k;
+                    value = v;
+                    hash = h;
+                    dist = d;
+                }
+                i = (i + 1) & mask;
+                dist++;
+            }
+            keys[i] = key;
+            values[i] = value;
+            hashes[i] = hash;
+        }
+
+        // 删除位置 i 上的元素，后面的元素往前挪
+        public void removeAt(int i) {
+            int next = (i + 1) & mask;
+            while (hashes[next] != 0 && psl(next) > 0) {
+                keys[i] = keys[next];
+                values[i] = values[next];
+                hashes[i] = hashes[next];
+                i = next;
+                next = (next + 1) & mask;
+            }
+            clear(i);
+        }
+
+        public void clear(int i) {
+            keys[i] = null;
+            values[i] = null;
+            hashes[i] = 0;
+        }
+
+        public int capacity() {
+            return hashes.length;
+        }
+    }
+
+    private Table table;
+    // 正在扩容时的旧表，没有扩容时为 null
+    private Table old;
+    // 旧表中下一个要搬的位置和还剩下没有搬的位置个数
+    private int migrateIndex;
+    private int migrateRemaining;
+
+    private int size;
+    private double loadFactor;
+    private int threshold;
+
+    /**
+     * 构造函数。
+     *
+     * @param capacity   初始容量，会向上取整到 2 的幂。
+     * @param loadFactor 装载因子，元素个数超过 容量 * 装载因子 时扩容，在 0 和 1 之间（不包括 0 和 1）。
+     */
+    public RobinHoodHashMap(int capacity, double loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor must be between 0 and 1.");
+        }
+
+        int n = 8;
+        while (n < capacity && n < (1 << 30)) {
+            n <<= 1;
+        }
+        table = new Table(n);
+        old = null;
+        size = 0;
+        this.loadFactor = loadFactor;
+        threshold = (int) (n * loadFactor);
+    }
+
+    public RobinHoodHashMap(int capacity) {
+        this(capacity, 0.8);
+    }
+
+    public RobinHoodHashMap() {
+        this(16);
+    }
+
+    // 打散 hashCode，并且保证不是 0（0 表示空位置）
+    private static int hash(Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key can not be null.");
+        }
+
+        int h = key.hashCode() * 0x9E3779B9;
+        h ^= h >>> 16;
+        return h == 0 ? 1 : h;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 添加键值对，键已经存在时更新值。
+     */
+    @Override
+    public void add(K key, V value) {
+        int hash = hash(key);
+        migrate();
+
+        int i = table.find(key, hash);
+        if (i >= 0) {
+            table.values[i] = value;
+            return;
+        }
+        if (old != null) {
+            i = old.find(key, hash);
+            if (i >= 0) {
+                old.values[i] = value;
+                return;
+            }
+        }
+
+        if (size + 1 > threshold) {
+            grow();
+        }
+        table.insert(key, value, hash);
+        size++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int hash = hash(key);
+        migrate();
+
+        int i = table.find(key, hash);
+        if (i >= 0) {
+            V ret = (V) table.values[i];
+            table.removeAt(i);
+            size--;
+            return ret;
+        }
+        if (old != null) {
+            i = old.find(key, hash);
+            if (i >= 0) {
+                V ret = (V) old.values[i];
+                old.removeAt(i);
+                size--;
+                return ret;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean contains(K key) {
+        int hash = hash(key);
+        return table.find(key, hash) >= 0 || (old != null && old.find(key, hash) >= 0);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int hash = hash(key);
+        int i = table.find(key, hash);
+        if (i >= 0) {
+            return (V) table.values[i];
+        }
+        if (old != null) {
+            i = old.find(key, hash);
+            if (i >= 0) {
+                return (V) old.values[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void set(K key, V newValue) {
+        int hash = hash(key);
+        int i = table.find(key, hash);
+        if (i >= 0) {
+            table.values[i] = newValue;
+            return;
+        }
+        if (old != null) {
+            i = old.find(key, hash);
+            if (i >= 0) {
+                old.values[i] = newValue;
+                return;
+            }
+        }
+
+        throw new IllegalArgumentException(key + " doesn't exist!");
+    }
+
+    // 开始扩容：换上两倍大小的新表，旧表留着慢慢搬
+    private void grow() {
+        if (table.capacity() == 1 << 30) {
+            throw new IllegalArgumentException("Map is full.");
+        }
+
+        // 上一次还没有搬完（装载因子很小的时候可能发生），先一次搬完
+        while (old != null) {
+            migrate();
+        }
+
+        old = table;
+        table = new Table(2 * old.capacity());
+        threshold = (int) (table.capacity() * loadFactor);
+
+        // 从一段的开头开始搬：空位置或者在自己家的元素，装载因子小于 1，一定存在
+        int start = 0;
+        while (old.hashes[start] != 0 && old.psl(start) > 0) {
+            start++;
+        }
+        migrateIndex = start;
+        migrateRemaining = old.capacity();
+    }
+
+    // 从旧表搬走至少 MIGRATE_STEP 个位置，并且停在一段的开头
+    private void migrate() {
+        if (old == null) {
+            return;
+        }
+
+        int moved = 0;
+        while (migrateRemaining > 0) {
+            int i = migrateIndex;
+            if (moved >= MIGRATE_STEP && (old.hashes[i] == 0 || old.psl(i) == 0)) {
+                break;
+            }
+
+            if (old.hashes[i] != 0) {
+                table.insert(old.keys[i], old.values[i], old.hashes[i]);
+                old.clear(i);
+            }
+            migrateIndex = (i + 1) & old.mask;
+            migrateRemaining--;
+            moved++;
+        }
+
+        if (migrateRemaining == 0) {
+            old = null;
+        }
+    }
+}
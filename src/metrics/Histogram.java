@@ -0,0 +1,139 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram
+ * 仿照 HdrHistogram 的对数-线性直方图，用于记录延迟这类跨度很大的数值。
+ *
+ * 如果每个数值一个桶，记录纳秒级的延迟需要非常多的桶；如果按固定宽度分桶，小数值的精度又不够。
+ * 这里把数值按最高位分成若干段，[2^k, 2^(k+1)) 这一段再等分成 2^(bits-1) 个子桶，
+ * 所以每个桶的宽度和数值本身成比例，相对误差不超过 1 / 2^(bits-1)，桶的总数只有 O(64 * 2^bits)。
+ *
+ * 小于 2^bits 的数值每个值一个桶，没有误差。
+ *
+ * 记录操作只是一次数组下标计算和一次原子自增，不需要加锁，可以被多个线程同时调用。
+ */
+public class Histogram {
+
+    private int bits;
+    private int half;
+    private AtomicLongArray counts;
+    private LongAdder totalCount;
+    private LongAdder sum;
+    private AtomicLong max;
+
+    /**
+     * 构造函数。
+     *
+     * @param precisionBits 精度，相对误差不超过 1 / 2^(precisionBits-1)。
+     */
+    public Histogram(int precisionBits) {
+        if (precisionBits < 2 || precisionBits > 16) {
+            throw new IllegalArgumentException("precisionBits must be in [2, 16].");
+        }
+
+        bits = precisionBits;
+        half = 1 << (precisionBits - 1);
+        counts = new AtomicLongArray((Long.SIZE - bits) * half + (1 << bits));
+        totalCount = new LongAdder();
+        sum = new LongAdder();
+        max = new AtomicLong(0);
+    }
+
+    /**
+     * 默认相对误差不超过 1/128。
+     */
+    public Histogram() {
+        this(8);
+    }
+
+    /**
+     * 记录一个数值，负数按 0 记录。
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * 返回百分位数，比如 getValueAtPercentile(99) 就是 p99。
+     * 返回的是所在桶的上界，所以结果不会比真实值小。
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be in [0, 100].");
+        }
+
+        long count = totalCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueAt(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * 清空直方图。和 record 同时调用时，可能会丢失一部分同时记录的数值。
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    // 数值所在桶的下标
+    private int indexOf(long value) {
+        if (value < (1L << bits)) {
+            return (int) value;
+        }
+
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - (bits - 1);
+        return shift * half + (int) (value >>> shift);
+    }
+
+    // 下标为 index 的桶所能表示的最大数值
+    private long highestValueAt(int index) {
+        if (index < (1 << bits)) {
+            return index;
+        }
+
+        int shift = index / half - 1;
+        long sub = index - (long) shift * half;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,201 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import queue.LoopQueue;
+import queue.Queue;
+import queue.ResizeListener;
+
+/**
+ * InstrumentedQueue
+ * 给任意一个 Queue 的实现加上监控，使用装饰器模式，不需要修改被监控的队列。
+ *
+ * 统计的内容：
+ * 当前队列深度、深度的最大值（high-water mark）、入队出队次数、扩容缩容次数，以及元素在队列中的逗留时间（sojourn time）的直方图。
+ *
+ * 为了尽量不影响入队出队的性能：
+ * 计数使用 LongAdder，多个线程同时累加时分散到不同的 cell 上，不会争抢同一个缓存行；
+ * 直方图的记录只是一次原子自增；
+ * 整个过程不加锁，监控线程可以随时调用 snapshot 读取统计数据。
+ *
+ * 逗留时间需要在入队时记录时间戳，出队时算出差值。时间戳保存在一个和队列顺序一致的循环数组里，
+ * 所以只有先进先出的队列才能正确统计逗留时间，对于优先队列这类不是先进先出的队列，构造时应该关闭逗留时间的统计。
+ *
+ * 这个类本身和被监控的队列一样不是线程安全的，如果被监控的队列需要在多个线程中使用，由调用者负责同步。
+ */
+public class InstrumentedQueue<E> implements Queue<E> {
+
+    private String name;
+    private Queue<E> queue;
+
+    private LongAdder enqueueCount;
+    private LongAdder dequeueCount;
+    private LongAdder resizeCount;
+    private AtomicLong highWaterMark;
+    private Histogram sojourn;
+    // 包装时队列中已经有的元素个数，深度从这里开始算
+    private long initialSize;
+
+    // 入队时间戳组成的循环队列
+    private boolean trackSojourn;
+    private long[] stamps;
+    private int stampFront, stampSize;
+    // 包装之前就在队列中的元素还有几个没有出队，它们没有入队时间戳，出队时不统计逗留时间
+    private int untracked;
+
+    /**
+     * 构造函数。
+     *
+     * @param name         队列的名字，会出现在快照和 JFR 事件中。
+     * @param queue        被监控的队列。
+     * @param trackSojourn 是否统计逗留时间，只适用于先进先出的队列。
+     */
+    public InstrumentedQueue(String name, Queue<E> queue, boolean trackSojourn) {
+        this.name = name;
+        this.queue = queue;
+        this.trackSojourn = trackSojourn;
+
+        enqueueCount = new LongAdder();
+        dequeueCount = new LongAdder();
+        resizeCount = new LongAdder();
+        initialSize = queue.getSize();
+        highWaterMark = new AtomicLong(initialSize);
+        sojourn = new Histogram();
+
+        stamps = new long[trackSojourn ? 16 : 0];
+        stampFront = 0;
+        stampSize = 0;
+        untracked = queue.getSize();
+
+        if (queue instanceof LoopQueue) {
+            // 队列上原来的回调继续保留，先调用它再统计，多层包装时每一层都能收到
+            LoopQueue<E> loopQueue = (LoopQueue<E>) queue;
+            ResizeListener previous = loopQueue.getResizeListener();
+            loopQueue.setResizeListener(new ResizeListener() {
+                @Override
+                public void onResize(int oldCapacity, int newCapacity) {
+                    if (previous != null) {
+                        previous.onResize(oldCapacity, newCapacity);
+                    }
+                    resizeCount.increment();
+
+                    QueueResizeEvent event = new QueueResizeEvent();
+                    if (event.shouldCommit()) {
+                        event.name = InstrumentedQueue.this.name;
+                        event.oldCapacity = oldCapacity;
+                        event.newCapacity = newCapacity;
+                        event.commit();
+                    }
+                }
+            });
+        }
+    }
+
+    public InstrumentedQueue(String name, Queue<E> queue) {
+        this(name, queue, true);
+    }
+
+    @Override
+    public int getSize() {
+        return queue.getSize();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public void enqueue(E e) {
+        queue.enqueue(e);
+        enqueueCount.increment();
+
+        int size = queue.getSize();
+        if (size > highWaterMark.get()) {
+            highWaterMark.accumulateAndGet(size, Math::max);
+        }
+
+        if (trackSojourn) {
+            pushStamp(System.nanoTime());
+        }
+    }
+
+    @Override
+    public E dequeue() {
+        E ret = queue.dequeue();
+        dequeueCount.increment();
+
+        if (untracked > 0) {
+            untracked--;
+        } else if (trackSojourn && stampSize > 0) {
+            sojourn.record(System.nanoTime() - popStamp());
+        }
+        return ret;
+    }
+
+    @Override
+    public E getFront() {
+        return queue.getFront();
+    }
+
+    /**
+     * 获取当前的统计数据，同时提交一个 JFR 事件（如果 JFR 正在记录这个事件）。
+     * 可以在其他线程中调用，比如由一个定时任务周期性地调用。
+     */
+    public QueueSnapshot snapshot() {
+        long enqueued = enqueueCount.sum();
+        long dequeued = dequeueCount.sum();
+        QueueSnapshot snapshot = new QueueSnapshot(name, initialSize + enqueued - dequeued, highWaterMark.get(), enqueued,
+                dequeued, resizeCount.sum(), sojourn);
+
+        QueueSnapshotEvent event = new QueueSnapshotEvent();
+        if (event.shouldCommit()) {
+            event.name = name;
+            event.depth = snapshot.getDepth();
+            event.highWaterMark = snapshot.getHighWaterMark();
+            event.enqueueCount = snapshot.getEnqueueCount();
+            event.dequeueCount = snapshot.getDequeueCount();
+            event.resizeCount = snapshot.getResizeCount();
+            event.sojournP50 = snapshot.getSojournP50();
+            event.sojournP99 = snapshot.getSojournP99();
+            event.sojournMax = snapshot.getSojournMax();
+            event.commit();
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * 逗留时间的直方图，单位：纳秒。
+     */
+    public Histogram getSojournHistogram() {
+        return sojourn;
+    }
+
+    private void pushStamp(long stamp) {
+        if (stampSize == stamps.length) {
+            long[] newStamps = new long[stamps.length * 2];
+            for (int i = 0; i < stampSize; i++) {
+                newStamps[i] = stamps[(stampFront + i) & (stamps.length - 1)];
+            }
+            stamps = newStamps;
+            stampFront = 0;
+        }
+
+        stamps[(stampFront + stampSize) & (stamps.length - 1)] = stamp;
+        stampSize++;
+    }
+
+    private long popStamp() {
+        long ret = stamps[stampFront];
+        stampFront = (stampFront + 1) & (stamps.length - 1);
+        stampSize--;
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return queue.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package metrics;
+
+import java.util.Random;
+
+import queue.LoopQueue;
+import queue.Queue;
+
+/**
+ * Main
+ *
+ * 测试监控给 LoopQueue 带来的额外开销：分别使用原始的 LoopQueue、只统计计数的 InstrumentedQueue、
+ * 同时统计逗留时间的 InstrumentedQueue，执行相同的入队出队操作。
+ */
+public class Main {
+
+    public static void main(String[] args) {
+        int opCount = 10_000_000;
+
+        // 预热
+        for (int i = 0; i < 3; i++) {
+            testQueue(new LoopQueue<>(), opCount);
+            testQueue(new InstrumentedQueue<>("warmup", new LoopQueue<>()), opCount);
+        }
+
+        double time1 = testQueue(new LoopQueue<>(), opCount);
+        System.out.println("LoopQueue, time: " + time1 + "s");
+
+        InstrumentedQueue<Integer> countersOnly = new InstrumentedQueue<>("counters", new LoopQueue<>(), false);
+        double time2 = testQueue(countersOnly, opCount);
+        System.out.println("InstrumentedQueue (counters), time: " + time2 + "s");
+        System.out.println(countersOnly.snapshot());
+
+        InstrumentedQueue<Integer> full = new InstrumentedQueue<>("full", new LoopQueue<>());
+        double time3 = testQueue(full, opCount);
+        System.out.println("InstrumentedQueue (counters + sojourn), time: " + time3 + "s");
+        System.out.println(full.snapshot());
+    }
+
+    /**
+     * 随机地入队出队，入队的概率稍大一些，让队列深度有起伏，也会触发扩容和缩容。
+     */
+    private static double testQueue(Queue<Integer> q, int opCount) {
+        Random random = new Random(0);
+
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < opCount; i++) {
+            if (q.isEmpty() || random.nextInt(100) < 55) {
+                q.enqueue(i);
+            } else {
+                q.dequeue();
+            }
+        }
+        while (!q.isEmpty()) {
+            q.dequeue();
+        }
+
+        long endTime = System.nanoTime();
+
+        return (endTime - startTime) / 1_000_000_000.0;
+    }
+}
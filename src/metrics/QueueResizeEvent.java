@@ -0,0 +1,26 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * QueueResizeEvent
+ * 被监控的队列底层数组扩容或者缩容时提交的 JFR 事件。
+ */
+@Name("metrics.QueueResize")
+@Label("Queue Resize")
+@Category("Data Structures")
+@Description("Capacity change of an instrumented queue")
+public class QueueResizeEvent extends jdk.jfr.Event {
+
+    @Label("Name")
+    String name;
+
+    @Label("Old Capacity")
+    int oldCapacity;
+
+    @Label("New Capacity")
+    int newCapacity;
+}
@@ -0,0 +1,102 @@
+package metrics;
+
+/**
+ * QueueSnapshot
+ * InstrumentedQueue 在某一时刻的统计数据，创建后不再变化。
+ */
+public class QueueSnapshot {
+
+    private String name;
+    private long depth;
+    private long highWaterMark;
+    private long enqueueCount;
+    private long dequeueCount;
+    private long resizeCount;
+    private long sojournCount;
+    private double sojournMean;
+    private long sojournP50;
+    private long sojournP99;
+    private long sojournMax;
+
+    public QueueSnapshot(String name, long depth, long highWaterMark, long enqueueCount, long dequeueCount,
+            long resizeCount, Histogram sojourn) {
+        this.name = name;
+        this.depth = depth;
+        this.highWaterMark = highWaterMark;
+        this.enqueueCount = enqueueCount;
+        this.dequeueCount = dequeueCount;
+        this.resizeCount = resizeCount;
+        sojournCount = sojourn.getTotalCount();
+        sojournMean = sojourn.getMean();
+        sojournP50 = sojourn.getValueAtPercentile(50);
+        sojournP99 = sojourn.getValueAtPercentile(99);
+        sojournMax = sojourn.getMax();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 当前队列中元素的个数。
+     */
+    public long getDepth() {
+        return depth;
+    }
+
+    /**
+     * 队列中元素个数曾经达到的最大值。
+     */
+    public long getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public long getEnqueueCount() {
+        return enqueueCount;
+    }
+
+    public long getDequeueCount() {
+        return dequeueCount;
+    }
+
+    /**
+     * 底层数组扩容和缩容的次数。
+     */
+    public long getResizeCount() {
+        return resizeCount;
+    }
+
+    /**
+     * 记录了逗留时间的元素个数。
+     */
+    public long getSojournCount() {
+        return sojournCount;
+    }
+
+    /**
+     * 元素在队列中逗留的平均时间，单位：纳秒。
+     */
+    public double getSojournMean() {
+        return sojournMean;
+    }
+
+    public long getSojournP50() {
+        return sojournP50;
+    }
+
+    public long getSojournP99() {
+        return sojournP99;
+    }
+
+    public long getSojournMax() {
+        return sojournMax;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%s: depth = %d, highWaterMark = %d, enqueue = %d, dequeue = %d, resize = %d, sojourn(ns) mean = %.1f, p50 = %d, p99 = %d, max = %d",
+                name, depth, highWaterMark, enqueueCount, dequeueCount, resizeCount, sojournMean, sojournP50,
+                sojournP99, sojournMax);
+    }
+}
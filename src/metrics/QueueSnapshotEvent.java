@@ -0,0 +1,48 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * QueueSnapshotEvent
+ * 每次调用 InstrumentedQueue.snapshot() 时提交的 JFR 事件。
+ */
+@Name("metrics.QueueSnapshot")
+@Label("Queue Snapshot")
+@Category("Data Structures")
+@Description("Depth, counters and sojourn time of an instrumented queue")
+public class QueueSnapshotEvent extends jdk.jfr.Event {
+
+    @Label("Name")
+    String name;
+
+    @Label("Depth")
+    long depth;
+
+    @Label("High Water Mark")
+    long highWaterMark;
+
+    @Label("Enqueue Count")
+    long enqueueCount;
+
+    @Label("Dequeue Count")
+    long dequeueCount;
+
+    @Label("Resize Count")
+    long resizeCount;
+
+    @Label("Sojourn P50")
+    @Timespan(Timespan.NANOSECONDS)
+    long sojournP50;
+
+    @Label("Sojourn P99")
+    @Timespan(Timespan.NANOSECONDS)
+    long sojournP99;
+
+    @Label("Sojourn Max")
+    @Timespan(Timespan.NANOSECONDS)
+    long sojournMax;
+}
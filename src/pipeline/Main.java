@@ -0,0 +1,74 @@
+package pipeline;
+
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import metrics.Histogram;
+
+/**
+ * Main
+ *
+ * 测试不同批大小下流水线的吞吐量和延迟。
+ * 流水线为 生产者 -> 变换 -> 变换 -> 消费者，每个元素是它被生产出来的时间，消费者据此算出端到端的延迟。
+ */
+public class Main {
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int n = 5_000_000;
+        int[] batchSizes = { 1, 16, 256, 4096 };
+
+        for (int batchSize : batchSizes) {
+            testPipeline("platform", Threads.platform("pipeline"), n, batchSize);
+        }
+
+        if (Threads.isVirtualSupported()) {
+            for (int batchSize : batchSizes) {
+                testPipeline("virtual", Threads.virtual("pipeline"), n, batchSize);
+            }
+        } else {
+            System.out.println("Virtual threads are not supported by this runtime, skipped.");
+        }
+    }
+
+    private static void testPipeline(String mode, ThreadFactory threadFactory, int n, int batchSize)
+            throws InterruptedException, ExecutionException {
+        Pipeline.Config config = new Pipeline.Config(batchSize, 1, TimeUnit.MILLISECONDS, 16 * batchSize, threadFactory);
+
+        Iterator<Long> source = new Iterator<Long>() {
+            private int count = 0;
+
+            @Override
+            public boolean hasNext() {
+                return count < n;
+            }
+
+            @Override
+            public Long next() {
+                count++;
+                return System.nanoTime();
+            }
+        };
+
+        Histogram latency = new Histogram();
+
+        long startTime = System.nanoTime();
+
+        Pipeline.from(source, config)
+                .map(t -> t)
+                .map(t -> t)
+                .run(t -> latency.record(System.nanoTime() - t));
+
+        long endTime = System.nanoTime();
+
+        if (latency.getTotalCount() != n) {
+            throw new IllegalArgumentException("Error");
+        }
+
+        double time = (endTime - startTime) / 1_000_000_000.0;
+        System.out.println(String.format("%s threads, batch size: %d, throughput: %.0f items/s, p50: %dus, p99: %dus",
+                mode, batchSize, n / time, latency.getValueAtPercentile(50) / 1000,
+                latency.getValueAtPercentile(99) / 1000));
+    }
+}
@@ -0,0 +1,209 @@
+package pipeline;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import queue.BoundedBlockingQueue;
+
+/**
+ * Pipeline
+ * 由若干个阶段（stage）组成的流水线：生产者 -> 变换 -> ... -> 消费者。
+ *
+ * 每个阶段运行在自己的线程上，相邻的阶段之间用一个有容量上限的 BoundedBlockingQueue 连接。
+ * 下游处理不过来时队列会被填满，上游的 putAll 就会等待，这样背压就一级一级地传回到生产者，内存不会无限增长。
+ *
+ * 元素在阶段之间成批地移动：一批凑够 batchSize 个元素，或者从这一批的第一个元素到达开始已经过去了 maxBatchDelay，就把这一批交给下游。
+ * 批越大，每个元素分摊的加锁和线程唤醒的开销越小，吞吐量越高，但是元素等待凑批的时间也越长，延迟越高。
+ *
+ * 任何一个阶段（包括 source、map 的函数和 sink）抛出异常时，记下第一个异常，关闭所有的队列并中断其他阶段的线程，
+ * run 等所有线程结束之后把这个异常包装成 ExecutionException 抛出，不会只处理了一部分数据就正常返回。
+ *
+ * 用法：
+ * Pipeline.from(source, config).map(x -> x * 2).map(x -> x + 1).run(sink);
+ */
+public class Pipeline<T> {
+
+    /**
+     * 流水线的配置。
+     */
+    public static class Config {
+        private int batchSize;
+        private long maxBatchDelayNanos;
+        private int queueCapacity;
+        private ThreadFactory threadFactory;
+
+        /**
+         * 构造函数。
+         *
+         * @param batchSize     一批最多多少个元素。
+         * @param maxBatchDelay 一批最多等待多久，为 0 时有多少元素就交出多少。
+         * @param unit          maxBatchDelay 的单位。
+         * @param queueCapacity 阶段之间队列的容量。
+         * @param threadFactory 用来创建每个阶段的线程，可以是平台线程也可以是虚拟线程，参见 Threads。
+         */
+        public Config(int batchSize, long maxBatchDelay, TimeUnit unit, int queueCapacity, ThreadFactory threadFactory) {
+            if (batchSize <= 0 || queueCapacity <= 0) {
+                throw new IllegalArgumentException("batchSize and queueCapacity must be positive.");
+            }
+
+            this.batchSize = batchSize;
+            this.maxBatchDelayNanos = unit.toNanos(maxBatchDelay);
+            this.queueCapacity = queueCapacity;
+            this.threadFactory = threadFactory;
+        }
+    }
+
+    // 一个阶段要执行的任务
+    private interface StageBody {
+        void run() throws InterruptedException;
+    }
+
+    private static class Stage {
+        public StageBody body;
+        // 阶段结束时（不管是正常结束还是出错）要关闭的输入和输出队列，可以为 null
+        public BoundedBlockingQueue<?> in, out;
+
+        public Stage(StageBody body, BoundedBlockingQueue<?> in, BoundedBlockingQueue<?> out) {
+            this.body = body;
+            this.in = in;
+            this.out = out;
+        }
+    }
+
+    private Config config;
+    // 从生产者到这里的所有阶段，每个 Pipeline 有自己的列表，map 时复制一份再添加，不会影响原来的 Pipeline
+    private List<Stage> stages;
+    // 最后一个阶段的输出
+    private BoundedBlockingQueue<T> tail;
+
+    private Pipeline(Config config, List<Stage> stages, BoundedBlockingQueue<T> tail) {
+        this.config = config;
+        this.stages = stages;
+        this.tail = tail;
+    }
+
+    /**
+     * 以 source 作为生产者创建一条流水线。
+     */
+    public static <T> Pipeline<T> from(Iterator<T> source, Config config) {
+        BoundedBlockingQueue<T> out = new BoundedBlockingQueue<>(config.queueCapacity);
+        List<Stage> stages = new ArrayList<>();
+
+        stages.add(new Stage(() -> {
+            ArrayList<T> batch = new ArrayList<>(config.batchSize);
+            long batchStart = 0;
+            while (source.hasNext()) {
+                if (batch.isEmpty()) {
+                    batchStart = System.nanoTime();
+                }
+                batch.add(source.next());
+
+                if (batch.size() == config.batchSize || System.nanoTime() - batchStart >= config.maxBatchDelayNanos) {
+                    out.putAll(batch);
+                    batch.clear();
+                }
+            }
+            out.putAll(batch);
+        }, null, out));
+
+        return new Pipeline<>(config, stages, out);
+    }
+
+    /**
+     * 在流水线末尾添加一个变换阶段。
+     */
+    public <R> Pipeline<R> map(Function<T, R> function) {
+        BoundedBlockingQueue<T> in = tail;
+        BoundedBlockingQueue<R> out = new BoundedBlockingQueue<>(config.queueCapacity);
+
+        List<Stage> newStages = new ArrayList<>(stages);
+        // 结束时关闭输入队列：下游提前结束时，让上游不要再阻塞在已满的队列上
+        newStages.add(new Stage(() -> {
+            ArrayList<T> batch = new ArrayList<>(config.batchSize);
+            ArrayList<R> results = new ArrayList<>(config.batchSize);
+            while (in.drainTo(batch, config.batchSize, config.maxBatchDelayNanos, TimeUnit.NANOSECONDS) >= 0) {
+                for (T e : batch) {
+                    results.add(function.apply(e));
+                }
+                out.putAll(results);
+                batch.clear();
+                results.clear();
+            }
+        }, in, out));
+
+        return new Pipeline<>(config, newStages, out);
+    }
+
+    /**
+     * 以 sink 作为消费者，启动流水线中的所有阶段，等待所有数据处理完毕。
+     *
+     * @throws ExecutionException 某个阶段抛出了异常，cause 是第一个抛出的异常。
+     */
+    public void run(Consumer<T> sink) throws InterruptedException, ExecutionException {
+        BoundedBlockingQueue<T> in = tail;
+
+        List<Stage> all = new ArrayList<>(stages);
+        all.add(new Stage(() -> {
+            ArrayList<T> batch = new ArrayList<>(config.batchSize);
+            while (in.drainTo(batch, config.batchSize, config.maxBatchDelayNanos, TimeUnit.NANOSECONDS) >= 0) {
+                for (T e : batch) {
+                    sink.accept(e);
+                }
+                batch.clear();
+            }
+        }, in, null));
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[all.size()];
+        for (int i = 0; i < threads.length; i++) {
+            Stage stage = all.get(i);
+            threads[i] = config.threadFactory.newThread(() -> {
+                try {
+                    stage.body.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable e) {
+                    // 只记下第一个异常，其他阶段因为队列被关闭或者被中断而抛出的异常都是它引起的
+                    if (failure.compareAndSet(null, e)) {
+                        for (Stage other : all) {
+                            close(other);
+                        }
+                        for (Thread thread : threads) {
+                            if (thread != Thread.currentThread()) {
+                                thread.interrupt();
+                            }
+                        }
+                    }
+                } finally {
+                    close(stage);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        if (failure.get() != null) {
+            throw new ExecutionException(failure.get());
+        }
+    }
+
+    private static void close(Stage stage) {
+        if (stage.in != null) {
+            stage.in.close();
+        }
+        if (stage.out != null) {
+            stage.out.close();
+        }
+    }
+}
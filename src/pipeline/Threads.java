@@ -0,0 +1,60 @@
+package pipeline;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Threads
+ * 创建平台线程或者虚拟线程的 ThreadFactory。
+ *
+ * 虚拟线程从 JDK 21 开始才正式提供，这个项目按 JDK 17 编译，所以通过反射调用 Thread.ofVirtual()，
+ * 在 JDK 21 及以上的运行时中就能使用虚拟线程，在更低版本的运行时中 isVirtualSupported 返回 false。
+ */
+public class Threads {
+
+    private Threads() {
+    }
+
+    /**
+     * 创建平台线程（普通的 Java 线程）的 ThreadFactory。
+     */
+    public static ThreadFactory platform(String namePrefix) {
+        return new ThreadFactory() {
+            private int count = 0;
+
+            @Override
+            public synchronized Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, namePrefix + "-" + count++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * 当前运行时是否支持虚拟线程。
+     */
+    public static boolean isVirtualSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 创建虚拟线程的 ThreadFactory，运行时不支持虚拟线程时抛出异常。
+     */
+    public static ThreadFactory virtual(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, namePrefix + "-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Virtual threads require JDK 21 or later.", e);
+        }
+    }
+}
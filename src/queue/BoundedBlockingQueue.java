@@ -0,0 +1,315 @@
+package queue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * BoundedBlockingQueue
+ * 有容量上限、线程安全的阻塞队列，用来连接生产者和消费者。
+ *
+ * 这个类不自己管理数据，而是给任意一个 Queue 的实现加上一把锁和两个条件变量：
+ * 队列满了，put 就在 notFull 上等待，这就是背压（back-pressure），生产者的速度会被下游的消费速度限制住；
+ * 队列空了，take 就在 notEmpty 上等待。
+ *
+ * 一次加锁只搬运一个元素时，加锁解锁和唤醒线程的开销会超过入队出队本身，
+ * 所以还提供了批量的 putAll 和 drainTo，一次加锁搬运一批元素。
+ *
+ * 队列可以被 close：关闭后不能再放入元素，已有的元素取完之后 drainTo 返回 -1，表示数据流结束。
+ *
+ * Queue 接口中的 enqueue 和 dequeue 不会阻塞，队列满了或者空了直接抛出异常，和其他队列的行为一致；
+ * put 和 take 会一直等待；offer 和 poll 最多等待给定的时间。
+ *
+ * 等待使用的是 ReentrantLock 和 Condition 而不是 synchronized 和 wait，
+ * 虚拟线程在 synchronized 中阻塞会占住（pin）它所在的载体线程，而在 Condition 上等待时会让出载体线程。
+ */
+public class BoundedBlockingQueue<E> implements Queue<E> {
+
+    private Queue<E> queue;
+    private int capacity;
+    private boolean closed;
+
+    private ReentrantLock lock;
+    private Condition notEmpty;
+    private Condition notFull;
+
+    /**
+     * 构造函数。
+     *
+     * @param queue    实际存放数据的队列，只能通过这个阻塞队列访问。
+     * @param capacity 容量上限。
+     */
+    public BoundedBlockingQueue(Queue<E> queue, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+
+        this.queue = queue;
+        this.capacity = capacity;
+        closed = false;
+        lock = new ReentrantLock();
+        notEmpty = lock.newCondition();
+        notFull = lock.newCondition();
+    }
+
+    public BoundedBlockingQueue(int capacity) {
+        this(new LoopQueue<>(), capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int getSize() {
+        lock.lock();
+        try {
+            return queue.getSize();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    /**
+     * 入队，不阻塞，队列满了抛出异常。
+     */
+    @Override
+    public void enqueue(E e) {
+        lock.lock();
+        try {
+            checkNotClosed();
+            if (queue.getSize() == capacity) {
+                throw new IllegalArgumentException("Cannot enqueue to a full queue.");
+            }
+            queue.enqueue(e);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 出队，不阻塞，队列空了抛出异常。
+     */
+    @Override
+    public E dequeue() {
+        lock.lock();
+        try {
+            E ret = queue.dequeue();
+            notFull.signal();
+            return ret;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E getFront() {
+        lock.lock();
+        try {
+            return queue.getFront();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 入队，队列满了就一直等待。
+     */
+    public void put(E e) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (queue.getSize() == capacity) {
+                checkNotClosed();
+                notFull.await();
+            }
+            checkNotClosed();
+            queue.enqueue(e);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 出队，队列空了就一直等待。队列已经关闭并且没有元素时抛出异常。
+     */
+    public E take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (queue.isEmpty()) {
+                if (closed) {
+                    throw new IllegalArgumentException("Queue is closed.");
+                }
+                notEmpty.await();
+            }
+            E ret = queue.dequeue();
+            notFull.signal();
+            return ret;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 入队，队列满了最多等待 timeout。
+     *
+     * @return 是否成功入队。
+     */
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (queue.getSize() == capacity) {
+                checkNotClosed();
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            checkNotClosed();
+            queue.enqueue(e);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 出队，队列空了最多等待 timeout。
+     *
+     * @return 出队的元素，超时或者队列已经关闭并且没有元素时返回 null。
+     */
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (queue.isEmpty()) {
+                if (closed || nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            E ret = queue.dequeue();
+            notFull.signal();
+            return ret;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 批量入队。队列满了就等待消费者取走一部分，所以一批元素可能会分几次放入。
+     */
+    public void putAll(List<E> batch) throws InterruptedException {
+        int i = 0;
+        lock.lockInterruptibly();
+        try {
+            while (i < batch.size()) {
+                while (queue.getSize() == capacity) {
+                    checkNotClosed();
+                    // 先唤醒消费者，把已经放入的元素取走
+                    notEmpty.signalAll();
+                    notFull.await();
+                }
+                checkNotClosed();
+
+                while (i < batch.size() && queue.getSize() < capacity) {
+                    queue.enqueue(batch.get(i));
+                    i++;
+                }
+            }
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 批量出队，把元素放入 batch 中。
+     * 先等到队列中至少有一个元素，然后继续收集，直到取够 maxElements 个元素，或者距离取到第一个元素已经过去了 maxDelay。
+     * maxDelay 为 0 时只取走当前已有的元素，不再等待。
+     *
+     * @return 取出的元素个数；队列已经关闭并且没有元素了返回 -1。
+     */
+    public int drainTo(List<E> batch, int maxElements, long maxDelay, TimeUnit unit) throws InterruptedException {
+        if (maxElements <= 0) {
+            throw new IllegalArgumentException("maxElements must be positive.");
+        }
+
+        int count = 0;
+        lock.lockInterruptibly();
+        try {
+            while (queue.isEmpty()) {
+                if (closed) {
+                    return -1;
+                }
+                notEmpty.await();
+            }
+
+            long nanos = unit.toNanos(maxDelay);
+            long deadline = System.nanoTime() + nanos;
+            while (true) {
+                while (count < maxElements && !queue.isEmpty()) {
+                    batch.add(queue.dequeue());
+                    count++;
+                }
+                notFull.signalAll();
+
+                if (count == maxElements || closed || nanos <= 0) {
+                    break;
+                }
+                nanos = notEmpty.awaitNanos(deadline - System.nanoTime());
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 关闭队列，唤醒所有等待的线程。
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalArgumentException("Queue is closed.");
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return queue.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
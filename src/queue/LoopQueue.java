@@ -16,6 +16,7 @@ public class LoopQueue<E> implements Queue<E> {
     private E[] data;
     private int front, tail;
     private int size;
+    private ResizeListener resizeListener;
 
     @SuppressWarnings("unchecked")
     public LoopQueue(int capacity) {
@@ -41,6 +42,20 @@ public class LoopQueue<E> implements Queue<E> {
         return data.length - 1;
     }
 
+    /**
+     * 设置扩容和缩容的回调，传入 null 表示取消。
+     */
+    public void setResizeListener(ResizeListener resizeListener) {
+        this.resizeListener = resizeListener;
+    }
+
+    /**
+     * 当前的扩容和缩容回调，没有时返回 null。
+     */
+    public ResizeListener getResizeListener() {
+        return resizeListener;
+    }
+
     /**
      * 循环队列使用 front == tail 来判断元素为空，这也是为什么创建数组需要多一个空间。
      */
@@ -104,6 +119,7 @@ public class LoopQueue<E> implements Queue<E> {
 
     @SuppressWarnings("unchecked")
     private void resize(int newCapacity) {
+        int oldCapacity = getCapacity();
         E[] newData = (E[]) new Object[newCapacity + 1];
 
         // 第一种遍历循环队列的所有元素的方式。
@@ -115,6 +131,10 @@ public class LoopQueue<E> implements Queue<E> {
         data = newData;
         front = 0;
         tail = size;
+
+        if (resizeListener != null) {
+            resizeListener.onResize(oldCapacity, newCapacity);
+        }
     }
 
     /**
@@ -0,0 +1,10 @@
+package queue;
+
+/**
+ * ResizeListener
+ * 队列底层数组扩容或者缩容时的回调，用于监控。
+ */
+public interface ResizeListener {
+
+    void onResize(int oldCapacity, int newCapacity);
+}
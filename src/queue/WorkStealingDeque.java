@@ -0,0 +1,139 @@
+package queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * WorkStealingDeque
+ * Chase-Lev 工作窃取双端队列。
+ *
+ * 每个工作线程拥有一个这样的双端队列：
+ * 拥有者（owner）只在底部（bottom）压入和弹出任务，相当于把它当作一个栈来用，最近压入的任务数据还在缓存里；
+ * 其他线程（thief）只从顶部（top）窃取任务，拿走的是最早压入的任务，通常也是最大的任务。
+ *
+ * 拥有者和窃取者只有在队列里只剩最后一个元素时才会竞争，这时通过对 top 做 CAS 来决定谁拿到这个元素，
+ * 其余时候 push 和 pop 都不需要加锁或者 CAS。
+ *
+ * 底层是一个循环数组，容量为 2 的幂，下标对容量取模时直接使用位运算。数组满了就扩容为原来的两倍，
+ * 扩容只由拥有者执行，旧数组中的元素不会被覆盖，所以正在旧数组上窃取的线程依然能读到正确的元素。
+ * 这里对 top 和 bottom 都使用 volatile 语义，保证了 pop 中「写 bottom，再读 top」的顺序。
+ *
+ * 复杂度：
+ * void push(E)     O(1) 均摊，只能由拥有者调用
+ * E pop()          O(1)，只能由拥有者调用
+ * E steal()        O(1)，任意线程都可以调用
+ */
+public class WorkStealingDeque<E> {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private AtomicLong top;
+    private volatile long bottom;
+    private volatile AtomicReferenceArray<E> array;
+
+    public WorkStealingDeque(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+
+        int cap = 1;
+        while (cap < capacity) {
+            cap <<= 1;
+        }
+        array = new AtomicReferenceArray<>(cap);
+        top = new AtomicLong(0);
+        bottom = 0;
+    }
+
+    public WorkStealingDeque() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 队列中元素的个数，并发情况下只是一个近似值。
+     */
+    public int getSize() {
+        long size = bottom - top.get();
+        return size < 0 ? 0 : (int) size;
+    }
+
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    /**
+     * 拥有者在底部压入元素。
+     */
+    public void push(E e) {
+        long b = bottom;
+        long t = top.get();
+        AtomicReferenceArray<E> a = array;
+        if (b - t > a.length() - 1) {
+            a = grow(a, t, b);
+        }
+        a.set((int) (b & (a.length() - 1)), e);
+        bottom = b + 1;
+    }
+
+    /**
+     * 拥有者从底部弹出元素，队列为空时返回 null。
+     */
+    public E pop() {
+        long b = bottom - 1;
+        AtomicReferenceArray<E> a = array;
+        bottom = b;
+        long t = top.get();
+
+        if (t > b) {
+            // 队列为空
+            bottom = b + 1;
+            return null;
+        }
+
+        int i = (int) (b & (a.length() - 1));
+        E e = a.get(i);
+        if (t == b) {
+            // 只剩最后一个元素，和窃取者竞争
+            if (!top.compareAndSet(t, t + 1)) {
+                return null;
+            }
+            a.set(i, null);
+            bottom = b + 1;
+            return e;
+        }
+
+        // 拿到了元素，清空这个位置，不让队列继续引用已经弹出的元素（比如执行完的任务和它的结果）。
+        // 此时 top < b，窃取者不可能再拿到位置 b 上的元素
+        a.set(i, null);
+        return e;
+    }
+
+    /**
+     * 从顶部窃取元素，队列为空或者竞争失败时返回 null。
+     */
+    public E steal() {
+        long t = top.get();
+        long b = bottom;
+        if (t >= b) {
+            return null;
+        }
+
+        AtomicReferenceArray<E> a = array;
+        E e = a.get((int) (t & (a.length() - 1)));
+        if (!top.compareAndSet(t, t + 1)) {
+            return null;
+        }
+        // 窃取者不能清空这个位置：CAS 成功之后 top 已经前进，拥有者随时可能在这个位置上压入新的元素。
+        // 被窃取的位置留给拥有者之后的 push 覆盖
+        return e;
+    }
+
+    private AtomicReferenceArray<E> grow(AtomicReferenceArray<E> a, long t, long b) {
+        AtomicReferenceArray<E> newArray = new AtomicReferenceArray<>(a.length() * 2);
+        for (long i = t; i < b; i++) {
+            newArray.set((int) (i & (newArray.length() - 1)), a.get((int) (i & (a.length() - 1))));
+        }
+        array = newArray;
+        return newArray;
+    }
+}
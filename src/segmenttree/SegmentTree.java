@@ -1,5 +1,8 @@
 package segmenttree;
 
+import forkjoin.ForkJoinScheduler;
+import forkjoin.Task;
+
 /**
  * SegmentTree
  * 经典面试问题，一面墙，每次可以在其中一段区间进行染色，染色可以覆盖之前的染色，若干次染色后，问某个区间内有几种颜色？
@@ -84,6 +87,65 @@ public class SegmentTree<E> {
         buildSegmentTree(0, 0, data.length - 1);
     }
 
+    /**
+     * 使用 ForkJoinScheduler 并行地创建线段树。
+     * 左右两个子区间的线段树互不影响，存放在 tree 数组中不同的位置，可以分别交给不同的线程创建，最后再融合到父节点。
+     * 区间足够小时就不再 fork，直接递归创建。merger 需要是线程安全的（无状态的融合器都是线程安全的）。
+     *
+     * @param arr       传入的数组。
+     * @param merger    融合器。
+     * @param scheduler 调度器。
+     */
+    @SuppressWarnings("unchecked")
+    public SegmentTree(E[] arr, Merger<E> merger, ForkJoinScheduler scheduler) {
+
+        this.merger = merger;
+
+        data = (E[]) new Object[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            data[i] = arr[i];
+        }
+
+        tree = (E[]) new Object[4 * arr.length];
+        if (data.length > 0) {
+            scheduler.invoke(new BuildTask(0, 0, data.length - 1));
+        }
+    }
+
+    // 区间元素个数小于这个值就不再 fork 子任务
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private class BuildTask extends Task<Void> {
+        private int treeIndex;
+        private int l, r;
+
+        public BuildTask(int treeIndex, int l, int r) {
+            this.treeIndex = treeIndex;
+            this.l = l;
+            this.r = r;
+        }
+
+        @Override
+        protected Void compute() {
+            if (r - l + 1 <= PARALLEL_THRESHOLD) {
+                buildSegmentTree(treeIndex, l, r);
+                return null;
+            }
+
+            int leftTreeIndex = leftChild(treeIndex);
+            int rightTreeIndex = rightChild(treeIndex);
+
+            int mid = l + (r - l) / 2;
+            BuildTask left = new BuildTask(leftTreeIndex, l, mid);
+            left.fork();
+            new BuildTask(rightTreeIndex, mid + 1, r).compute();
+            left.join();
+
+            tree[treeIndex] = merger.merge(tree[leftTreeIndex], tree[rightTreeIndex]);
+            return null;
+        }
+    }
+
     /**
      * 在 treeIndex 的位置创建表示区间[l...r]的线段树
      * 
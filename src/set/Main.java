@@ -1,6 +1,10 @@
 package set;
 
 // import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import avltree.AVLSet;
 
 /**
  * Main
@@ -33,7 +37,87 @@ package set;
  */
 public class Main {
 
+    // 先放入 keys 中的元素，再按 queries 的顺序访问：每 10 次中 1 次删除再重新添加，其余是查找
+    private static double testSet(Set<Integer> set, Integer[] keys, Integer[] queries) {
+        for (Integer key : keys) {
+            set.add(key);
+        }
+
+        long startTime = System.nanoTime();
+        int hits = 0;
+        for (int i = 0; i < queries.length; i++) {
+            if (i % 10 == 0) {
+                set.remove(queries[i]);
+                set.add(queries[i]);
+            } else if (set.contains(queries[i])) {
+                hits++;
+            }
+        }
+        double time = (System.nanoTime() - startTime) / 1_000_000_000.0;
+
+        if (hits != queries.length - (queries.length + 9) / 10 || set.getSize() != keys.length) {
+            throw new IllegalArgumentException("Error");
+        }
+        return time;
+    }
+
+    // 从 keys 中取 q 个元素，第 i 热的元素被取到的概率正比于 1 / i^s，s = 0 时是均匀分布
+    private static Integer[] zipfQueries(Integer[] keys, int q, double s, Random random) {
+        int m = keys.length;
+        double[] cdf = new double[m];
+        double sum = 0;
+        for (int i = 0; i < m; i++) {
+            sum += 1 / Math.pow(i + 1, s);
+            cdf[i] = sum;
+        }
+
+        Integer[] queries = new Integer[q];
+        for (int i = 0; i < q; i++) {
+            int rank = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            // keys 是打乱过的，热点元素在树中的位置是随机的
+            queries[i] = keys[Math.min(rank, m - 1)];
+        }
+        return queries;
+    }
+
+    /**
+     * 对比几种搜索树实现的集合：m 个元素，q 次访问，分别使用均匀分布和不同偏斜程度的 Zipf 分布的键。
+     * 元素按有序和打乱两种顺序插入，有序插入时 BST 退化成链表，所以只在打乱的时候参与对比。
+     */
+    private static void compareBalancing(int m, int q) {
+        Random random = new Random();
+        Integer[] sorted = new Integer[m];
+        for (int i = 0; i < m; i++) {
+            sorted[i] = i;
+        }
+        Integer[] shuffled = sorted.clone();
+        for (int i = m - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer t = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = t;
+        }
+
+        for (double s : new double[] { 0, 0.8, 1.0, 1.2 }) {
+            Integer[] queries = zipfQueries(shuffled, q, s, random);
+            String name = s == 0 ? "Uniform" : "Zipf s = " + s;
+
+            System.out.println(name + ", shuffled insert, BSTSet: " + testSet(new BSTSet<>(), shuffled, queries) + "s");
+            System.out.println(name + ", shuffled insert, AVLSet: " + testSet(new AVLSet<>(), shuffled, queries) + "s");
+            System.out.println(name + ", shuffled insert, TreapSet: " + testSet(new TreapSet<>(), shuffled, queries) + "s");
+            System.out.println(name + ", shuffled insert, SplayTreeSet: " + testSet(new SplayTreeSet<>(), shuffled, queries) + "s");
+            System.out.println(name + ", sorted insert, AVLSet: " + testSet(new AVLSet<>(), sorted, queries) + "s");
+            System.out.println(name + ", sorted insert, TreapSet: " + testSet(new TreapSet<>(), sorted, queries) + "s");
+            System.out.println(name + ", sorted insert, SplayTreeSet: " + testSet(new SplayTreeSet<>(), sorted, queries) + "s");
+        }
+    }
+
     public static void main(String[] args) {
+        compareBalancing(200_000, 2_000_000);
+
         // ArrayList<String> words = new ArrayList<>();
 
         // words.add("a");
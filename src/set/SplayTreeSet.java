@@ -0,0 +1,39 @@
+package set;
+
+import bst.SplayTree;
+
+/**
+ * SplayTreeSet
+ */
+public class SplayTreeSet<E extends Comparable<E>> implements Set<E> {
+    private SplayTree<E> splayTree;
+
+    public SplayTreeSet() {
+        splayTree = new SplayTree<>();
+    }
+
+    @Override
+    public int getSize() {
+        return splayTree.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return splayTree.isEmpty();
+    }
+
+    @Override
+    public void add(E e) {
+        splayTree.add(e);
+    }
+
+    @Override
+    public boolean contains(E e) {
+        return splayTree.contains(e);
+    }
+
+    @Override
+    public void remove(E e) {
+        splayTree.remove(e);
+    }
+}
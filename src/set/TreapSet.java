@@ -0,0 +1,39 @@
+package set;
+
+import bst.Treap;
+
+/**
+ * TreapSet
+ */
+public class TreapSet<E extends Comparable<E>> implements Set<E> {
+    private Treap<E> treap;
+
+    public TreapSet() {
+        treap = new Treap<>();
+    }
+
+    @Override
+    public int getSize() {
+        return treap.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return treap.isEmpty();
+    }
+
+    @Override
+    public void add(E e) {
+        treap.add(e);
+    }
+
+    @Override
+    public boolean contains(E e) {
+        return treap.contains(e);
+    }
+
+    @Override
+    public void remove(E e) {
+        treap.remove(e);
+    }
+}
@@ -0,0 +1,202 @@
+package stack;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * BoundedBlockingStack
+ * 有容量上限、线程安全的阻塞栈，和 queue.BoundedBlockingQueue 相对应。
+ *
+ * 给任意一个 Stack 的实现加上一把锁和两个条件变量：栈满了 put 就等待，栈空了 take 就等待。
+ * Stack 接口中的 push 和 pop 不会阻塞，栈满了或者空了直接抛出异常。
+ *
+ * 等待使用 ReentrantLock 和 Condition，虚拟线程在这里等待时会让出载体线程，不会像 synchronized 那样占住载体线程。
+ */
+public class BoundedBlockingStack<E> implements Stack<E> {
+
+    private Stack<E> stack;
+    private int capacity;
+
+    private ReentrantLock lock;
+    private Condition notEmpty;
+    private Condition notFull;
+
+    /**
+     * 构造函数。
+     *
+     * @param stack    实际存放数据的栈，只能通过这个阻塞栈访问。
+     * @param capacity 容量上限。
+     */
+    public BoundedBlockingStack(Stack<E> stack, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+
+        this.stack = stack;
+        this.capacity = capacity;
+        lock = new ReentrantLock();
+        notEmpty = lock.newCondition();
+        notFull = lock.newCondition();
+    }
+
+    public BoundedBlockingStack(int capacity) {
+        this(new ArrayStack<>(), capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int getSize() {
+        lock.lock();
+        try {
+            return stack.getSize();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    /**
+     * 入栈，不阻塞，栈满了抛出异常。
+     */
+    @Override
+    public void push(E e) {
+        lock.lock();
+        try {
+            if (stack.getSize() == capacity) {
+                throw new IllegalArgumentException("Cannot push to a full stack.");
+            }
+            stack.push(e);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 出栈，不阻塞，栈空了抛出异常。
+     */
+    @Override
+    public E pop() {
+        lock.lock();
+        try {
+            if (stack.isEmpty()) {
+                throw new IllegalArgumentException("Cannot pop from an empty stack.");
+            }
+            E ret = stack.pop();
+            notFull.signal();
+            return ret;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E peek() {
+        lock.lock();
+        try {
+            if (stack.isEmpty()) {
+                throw new IllegalArgumentException("Stack is empty.");
+            }
+            return stack.peek();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 入栈，栈满了就一直等待。
+     */
+    public void put(E e) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (stack.getSize() == capacity) {
+                notFull.await();
+            }
+            stack.push(e);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 出栈，栈空了就一直等待。
+     */
+    public E take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (stack.isEmpty()) {
+                notEmpty.await();
+            }
+            E ret = stack.pop();
+            notFull.signal();
+            return ret;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 入栈，栈满了最多等待 timeout。
+     *
+     * @return 是否成功入栈。
+     */
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (stack.getSize() == capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            stack.push(e);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 出栈，栈空了最多等待 timeout。
+     *
+     * @return 出栈的元素，超时返回 null。
+     */
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (stack.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            E ret = stack.pop();
+            notFull.signal();
+            return ret;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return stack.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
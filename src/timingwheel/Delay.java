@@ -0,0 +1,10 @@
+package timingwheel;
+
+/**
+ * Delay
+ * 计算元素需要延迟多少个 tick 才到期，DelayQueue 入队时使用。
+ */
+public interface Delay<E> {
+
+    long delayOf(E e);
+}
@@ -0,0 +1,111 @@
+package timingwheel;
+
+import queue.Queue;
+
+/**
+ * DelayQueue
+ * 基于分层时间轮实现的延迟队列。
+ *
+ * 入队的元素要经过一段延迟（由 Delay 计算，单位是 tick）才会到期，出队只能取出已经到期的元素，按到期的先后顺序出队。
+ * 时间由调用者通过 advance 推动，每个 tick 的具体长度由调用者决定。
+ *
+ * 这个队列中的方法复杂度：
+ * void enqueue(E)     O(1)
+ * E dequeue()         O(1)
+ * E getFront()        O(1)
+ * int getSize()       O(1)
+ * boolean isEmpty()   O(1)
+ * boolean cancel(...)  O(1)
+ *
+ * 相比使用 heap.PriorityQueue 实现的延迟队列，入队和取消都是 O(1) 的，取消后的元素也会立即从时间轮上删除。
+ */
+public class DelayQueue<E> implements Queue<E> {
+
+    private TimingWheel<E> wheel;
+    private Delay<E> delay;
+
+    public DelayQueue(Delay<E> delay, int wheelBits) {
+        this.delay = delay;
+        wheel = new TimingWheel<>(wheelBits);
+    }
+
+    public DelayQueue(Delay<E> delay) {
+        this.delay = delay;
+        wheel = new TimingWheel<>();
+    }
+
+    /**
+     * 队列中元素的个数，包括还没有到期的元素。
+     */
+    @Override
+    public int getSize() {
+        return wheel.getPendingSize() + wheel.getExpiredSize();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    /**
+     * 入队，延迟由构造时传入的 Delay 计算。
+     */
+    @Override
+    public void enqueue(E e) {
+        wheel.schedule(e, delay.delayOf(e));
+    }
+
+    /**
+     * 入队，并返回定时器句柄，可以用来取消。
+     */
+    public TimingWheel.Timeout<E> schedule(E e, long delay) {
+        return wheel.schedule(e, delay);
+    }
+
+    /**
+     * 取消一个还没有出队的元素。
+     */
+    public boolean cancel(TimingWheel.Timeout<E> timeout) {
+        return wheel.cancel(timeout);
+    }
+
+    /**
+     * 出队，只能取出已经到期的元素。
+     */
+    @Override
+    public E dequeue() {
+        if (!wheel.hasExpired()) {
+            throw new IllegalArgumentException("Cannot dequeue, no element is expired.");
+        }
+        return wheel.pollExpired().getElement();
+    }
+
+    /**
+     * 查看最早到期的元素。
+     */
+    @Override
+    public E getFront() {
+        if (!wheel.hasExpired()) {
+            throw new IllegalArgumentException("No element is expired.");
+        }
+        return wheel.peekExpired().getElement();
+    }
+
+    /**
+     * 是否有已经到期、可以出队的元素。
+     */
+    public boolean hasExpired() {
+        return wheel.hasExpired();
+    }
+
+    public long getCurrentTick() {
+        return wheel.getCurrentTick();
+    }
+
+    /**
+     * 时钟前进 ticks 个 tick，到期的元素变为可以出队。
+     */
+    public void advance(long ticks) {
+        wheel.advance(ticks);
+    }
+}
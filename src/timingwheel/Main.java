@@ -0,0 +1,160 @@
+package timingwheel;
+
+import java.util.Random;
+
+import heap.PriorityQueue;
+
+/**
+ * Main
+ *
+ * 对比时间轮和堆实现的定时器：添加 n 个定时器，其中 90% 在到期之前被取消，然后推进时钟直到全部到期。
+ * 堆不能删除任意元素，只能给取消的定时器打标记，出堆时再跳过。
+ *
+ * 运行参数：定时器个数，默认 10_000_000（需要较大的堆内存，比如 -Xmx4g）。
+ */
+public class Main {
+
+    // 使用堆实现定时器时，堆中存放的元素
+    private static class HeapTimer implements Comparable<HeapTimer> {
+        public long deadline;
+        public int id;
+        public boolean cancelled;
+
+        public HeapTimer(long deadline, int id) {
+            this.deadline = deadline;
+            this.id = id;
+            cancelled = false;
+        }
+
+        // MaxHeap 是最大堆，这里反过来比较，让到期时间最早的定时器在堆顶
+        @Override
+        public int compareTo(HeapTimer another) {
+            if (deadline != another.deadline) {
+                return Long.compare(another.deadline, deadline);
+            }
+            return Integer.compare(another.id, id);
+        }
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int maxDelay = 1 << 20;
+
+        test(100_000, maxDelay);
+
+        long[] delays = new long[n];
+        boolean[] cancel = new boolean[n];
+        Random random = new Random();
+        for (int i = 0; i < n; i++) {
+            delays[i] = 1 + random.nextInt(maxDelay);
+            cancel[i] = random.nextInt(10) != 0;
+        }
+
+        double time1 = testTimingWheel(delays, cancel);
+        System.out.println("TimingWheel, time: " + time1 + "s");
+
+        double time2 = testHeap(delays, cancel);
+        System.out.println("PriorityQueue, time: " + time2 + "s");
+    }
+
+    // 时间轮和堆的出队顺序应该完全一样
+    private static void test(int n, int maxDelay) {
+        Random random = new Random();
+        DelayQueue<Integer> delayQueue = new DelayQueue<>(e -> 0);
+        PriorityQueue<HeapTimer> pq = new PriorityQueue<>();
+
+        for (int i = 0; i < n; i++) {
+            long delay = random.nextInt(maxDelay);
+            TimingWheel.Timeout<Integer> timeout = delayQueue.schedule(i, delay);
+            HeapTimer timer = new HeapTimer(delay, i);
+            pq.enqueue(timer);
+            if (random.nextInt(10) != 0) {
+                delayQueue.cancel(timeout);
+                timer.cancelled = true;
+            }
+        }
+
+        for (long tick = 0; tick <= maxDelay; tick++) {
+            while (delayQueue.hasExpired()) {
+                int id = delayQueue.dequeue();
+                while (pq.getFront().cancelled) {
+                    pq.dequeue();
+                }
+                HeapTimer timer = pq.dequeue();
+                if (timer.id != id || timer.deadline != tick) {
+                    throw new IllegalArgumentException("Error");
+                }
+            }
+            delayQueue.advance(1);
+        }
+
+        if (!delayQueue.isEmpty()) {
+            throw new IllegalArgumentException("Error");
+        }
+        System.out.println("Test TimingWheel completed.");
+    }
+
+    private static double testTimingWheel(long[] delays, boolean[] cancel) {
+        long startTime = System.nanoTime();
+
+        int n = delays.length;
+        TimingWheel<Integer> wheel = new TimingWheel<>();
+        @SuppressWarnings("unchecked")
+        TimingWheel.Timeout<Integer>[] timeouts = (TimingWheel.Timeout<Integer>[]) new TimingWheel.Timeout<?>[n];
+        for (int i = 0; i < n; i++) {
+            timeouts[i] = wheel.schedule(i, delays[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            if (cancel[i]) {
+                wheel.cancel(timeouts[i]);
+            }
+        }
+
+        int fired = 0;
+        while (wheel.getPendingSize() > 0 || wheel.hasExpired()) {
+            wheel.advance(1);
+            while (wheel.hasExpired()) {
+                wheel.pollExpired();
+                fired++;
+            }
+        }
+        System.out.println("TimingWheel fired: " + fired);
+
+        long endTime = System.nanoTime();
+
+        return (endTime - startTime) / 1_000_000_000.0;
+    }
+
+    private static double testHeap(long[] delays, boolean[] cancel) {
+        long startTime = System.nanoTime();
+
+        int n = delays.length;
+        PriorityQueue<HeapTimer> pq = new PriorityQueue<>();
+        HeapTimer[] timers = new HeapTimer[n];
+        for (int i = 0; i < n; i++) {
+            timers[i] = new HeapTimer(delays[i], i);
+            pq.enqueue(timers[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            if (cancel[i]) {
+                timers[i].cancelled = true;
+            }
+        }
+
+        int fired = 0;
+        long tick = 0;
+        while (!pq.isEmpty()) {
+            tick++;
+            while (!pq.isEmpty() && pq.getFront().deadline <= tick) {
+                if (!pq.dequeue().cancelled) {
+                    fired++;
+                }
+            }
+        }
+        System.out.println("PriorityQueue fired: " + fired);
+
+        long endTime = System.nanoTime();
+
+        return (endTime - startTime) / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,323 @@
+package timingwheel;
+
+/**
+ * TimingWheel
+ * 分层时间轮。
+ *
+ * 如果使用堆（比如 heap.PriorityQueue）来管理定时器，每添加一个定时器都是 O(logn) 的，
+ * 而且堆不支持删除任意元素，取消定时器只能打一个标记，等它到了堆顶再跳过，被取消的定时器会一直占着堆的空间。
+ *
+ * 时间轮把时间切分成一个个 tick，每一层是一个环形数组，数组的每个位置（slot）挂着一个双向链表，存放在这个 tick 到期的定时器。
+ * 第 0 层每个 slot 表示 1 个 tick，第 1 层每个 slot 表示 wheelSize 个 tick，第 2 层每个 slot 表示 wheelSize^2 个 tick，以此类推。
+ * 到期时间超出当前所有层能表示的范围时，就在上面再创建一层，也就是溢出轮（overflow wheel）。
+ *
+ * 每一层的 slot 索引直接取到期时间的对应二进制位：
+ * 第 L 层的索引为 (deadline >> (bits * L)) & mask
+ * 一个定时器放在哪一层，取决于到期时间和当前时间从哪一层开始二进制位完全相同。
+ *
+ * 时钟每前进一个 tick：
+ * 1. 从高层到低层，如果当前时间在第 L 层的低位全部为 0，说明第 L 层转到了新的 slot，把这个 slot 中的定时器取出来重新放入更低的层（降级）；
+ * 2. 第 0 层当前 slot 中的定时器全部到期，移入到期链表。
+ *
+ * 复杂度：
+ * schedule        O(1)
+ * cancel          O(1)
+ * advance         每个 tick O(1) 均摊，每个定时器最多被降级 层数 次
+ * pollExpired     O(1)
+ */
+public class TimingWheel<E> {
+
+    /**
+     * 定时器，schedule 返回给用户的句柄，用于 O(1) 地取消。
+     */
+    public static class Timeout<E> {
+        private E e;
+        private long deadline;
+        private Timeout<E> prev, next;
+        private boolean cancelled;
+
+        private Timeout(E e, long deadline) {
+            this.e = e;
+            this.deadline = deadline;
+            prev = null;
+            next = null;
+            cancelled = false;
+        }
+
+        // 作为链表哨兵节点使用
+        private Timeout() {
+            this(null, 0);
+            prev = this;
+            next = this;
+        }
+
+        public E getElement() {
+            return e;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    // 一层最多 2^30 个 slot，再多就不是时间轮而是数组了
+    private static final int MAX_WHEEL_BITS = 30;
+
+    private int bits;
+    private int mask;
+    // wheels[L][i] 是第 L 层第 i 个 slot 的哨兵节点
+    private Timeout<E>[][] wheels;
+    // 到期但还没有被取走的定时器，按到期顺序排列
+    private Timeout<E> expired;
+    private int expiredSize;
+    // 还挂在时间轮上、尚未到期的定时器个数
+    private int pendingSize;
+    private long currentTick;
+
+    /**
+     * 构造函数。
+     *
+     * @param wheelBits 每一层 slot 数量的二进制位数，即每一层有 2^wheelBits 个 slot。
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int wheelBits) {
+        if (wheelBits <= 0 || wheelBits > MAX_WHEEL_BITS) {
+            throw new IllegalArgumentException("wheelBits must be in [1, " + MAX_WHEEL_BITS + "].");
+        }
+
+        bits = wheelBits;
+        mask = (1 << wheelBits) - 1;
+        wheels = (Timeout<E>[][]) new Timeout<?>[0][];
+        addLevel();
+        expired = new Timeout<>();
+        expiredSize = 0;
+        pendingSize = 0;
+        currentTick = 0;
+    }
+
+    /**
+     * 默认每一层 64 个 slot。
+     */
+    public TimingWheel() {
+        this(6);
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * 时间轮上还没有到期的定时器个数。
+     */
+    public int getPendingSize() {
+        return pendingSize;
+    }
+
+    /**
+     * 已经到期、等待取出的定时器个数。
+     */
+    public int getExpiredSize() {
+        return expiredSize;
+    }
+
+    /**
+     * 当前时间轮的层数。
+     */
+    public int getLevels() {
+        return wheels.length;
+    }
+
+    /**
+     * 添加一个 delay 个 tick 之后到期的定时器。delay 小于等于 0 的定时器直接到期。
+     */
+    public Timeout<E> schedule(E e, long delay) {
+        if (delay > Long.MAX_VALUE - currentTick) {
+            throw new IllegalArgumentException("Delay is too large.");
+        }
+
+        Timeout<E> timeout = new Timeout<>(e, currentTick + Math.max(delay, 0));
+        place(timeout);
+        return timeout;
+    }
+
+    /**
+     * 取消一个定时器。定时器只需要从所在的双向链表上摘下来，O(1)。
+     *
+     * @return 如果定时器已经被取出或者已经取消，返回 false。
+     */
+    public boolean cancel(Timeout<E> timeout) {
+        if (timeout.cancelled || timeout.next == null) {
+            return false;
+        }
+
+        if (timeout.deadline <= currentTick) {
+            expiredSize--;
+        } else {
+            pendingSize--;
+        }
+        unlink(timeout);
+        timeout.cancelled = true;
+        return true;
+    }
+
+    /**
+     * 时钟前进 ticks 个 tick。
+     */
+    public void advance(long ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("Ticks can't be negative.");
+        }
+        advanceTo(currentTick + ticks);
+    }
+
+    /**
+     * 时钟前进到 tick 这个时刻。
+     */
+    public void advanceTo(long tick) {
+        while (currentTick < tick) {
+            // 时间轮上已经没有定时器了，不需要一个 tick 一个 tick 地走
+            if (pendingSize == 0) {
+                currentTick = tick;
+                return;
+            }
+
+            currentTick++;
+
+            // 从高层到低层降级，低层的 slot 才能在同一个 tick 里拿到从高层降下来的定时器
+            for (int level = wheels.length - 1; level > 0; level--) {
+                if (high(currentTick, level) << (bits * level) == currentTick) {
+                    cascade(level);
+                }
+            }
+
+            Timeout<E> head = wheels[0][(int) (currentTick & mask)];
+            if (head.next != head) {
+                int count = 0;
+                for (Timeout<E> cur = head.next; cur != head; cur = cur.next) {
+                    count++;
+                }
+                spliceToExpired(head);
+                pendingSize -= count;
+                expiredSize += count;
+            }
+        }
+    }
+
+    /**
+     * 是否有到期的定时器。
+     */
+    public boolean hasExpired() {
+        return expiredSize > 0;
+    }
+
+    /**
+     * 查看最早到期的定时器，不取出。
+     */
+    public Timeout<E> peekExpired() {
+        if (expiredSize == 0) {
+            throw new IllegalArgumentException("No expired timeout.");
+        }
+        return expired.next;
+    }
+
+    /**
+     * 取出最早到期的定时器。
+     */
+    public Timeout<E> pollExpired() {
+        Timeout<E> ret = peekExpired();
+        unlink(ret);
+        expiredSize--;
+        return ret;
+    }
+
+    // 把第 level 层当前 slot 中的定时器取出来，按新的当前时间重新放置
+    private void cascade(int level) {
+        Timeout<E> head = wheels[level][(int) (high(currentTick, level) & mask)];
+        Timeout<E> cur = head.next;
+        head.next = head;
+        head.prev = head;
+
+        while (cur != head) {
+            Timeout<E> next = cur.next;
+            cur.prev = cur.next = null;
+            pendingSize--;
+            place(cur);
+            cur = next;
+        }
+    }
+
+    // 根据到期时间，把定时器放到合适的层和 slot 中
+    private void place(Timeout<E> timeout) {
+        long deadline = timeout.deadline;
+        if (deadline <= currentTick) {
+            linkLast(expired, timeout);
+            expiredSize++;
+            return;
+        }
+
+        // 到期时间和当前时间在第 level 层以上的位全部相同，就放在第 level 层
+        int level = 0;
+        while (high(deadline, level + 1) != high(currentTick, level + 1)) {
+            level++;
+        }
+        while (level >= wheels.length) {
+            addLevel();
+        }
+
+        linkLast(wheels[level][(int) (high(deadline, level) & mask)], timeout);
+        pendingSize++;
+    }
+
+    // tick 在第 level 层及以上的位，移位超过 64 位时 Java 会对移位数取模，这里单独处理
+    private long high(long tick, int level) {
+        int shift = bits * level;
+        return shift >= Long.SIZE ? 0 : tick >>> shift;
+    }
+
+    // 添加一层溢出轮
+    @SuppressWarnings("unchecked")
+    private void addLevel() {
+        Timeout<E>[][] newWheels = (Timeout<E>[][]) new Timeout<?>[wheels.length + 1][];
+        for (int i = 0; i < wheels.length; i++) {
+            newWheels[i] = wheels[i];
+        }
+
+        Timeout<E>[] wheel = (Timeout<E>[]) new Timeout<?>[mask + 1];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Timeout<>();
+        }
+        newWheels[wheels.length] = wheel;
+        wheels = newWheels;
+    }
+
+    // 把 head 链表整体接到到期链表的末尾，O(1)
+    private void spliceToExpired(Timeout<E> head) {
+        Timeout<E> first = head.next;
+        Timeout<E> last = head.prev;
+
+        first.prev = expired.prev;
+        expired.prev.next = first;
+        last.next = expired;
+        expired.prev = last;
+
+        head.next = head;
+        head.prev = head;
+    }
+
+    private void linkLast(Timeout<E> head, Timeout<E> timeout) {
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+    }
+
+    private void unlink(Timeout<E> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = timeout.next = null;
+    }
+}